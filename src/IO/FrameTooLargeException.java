@@ -0,0 +1,33 @@
+package IO;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a frame is longer than the reader accepts. Its payload has been skipped,
+ * so the stream is positioned at the next frame and the request can be answered by its ID.
+ */
+public class FrameTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final long requestId;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param requestId ID of the request the frame carried
+     * @param length    Length of the frame
+     * @param maxLength Largest length the reader accepted
+     */
+    public FrameTooLargeException(long requestId, int length, int maxLength) {
+        super("Frame of " + length + " bytes exceeds the limit of " + maxLength + " bytes");
+        this.requestId = requestId;
+    }
+
+    /**
+     * Returns the ID of the request the frame carried.
+     *
+     * @return The request ID
+     */
+    public long getRequestId() {
+        return requestId;
+    }
+}
@@ -0,0 +1,108 @@
+package IO;
+
+import algorithms.mazeGenerators.BitMaze;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a maze written by MyCompressorOutputStream straight from a stream.
+ * The header (dimensions, start and goal) is read first, so the maze array can be allocated
+ * with its exact size; the packed cells are then read in bounded chunks and written directly
+ * into the maze rows, without an intermediate one-byte-per-cell buffer.
+ */
+public class MazeDecoder {
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Reads one compressed maze from the stream.
+     *
+     * @param in Stream positioned at the start of a compressed maze
+     * @return The decoded maze
+     * @throws IOException If the stream ends early or the header is invalid
+     */
+    public static Maze readMaze(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int rows = data.readInt();
+        int cols = data.readInt();
+        Position start = new Position(data.readInt(), data.readInt());
+        Position goal = new Position(data.readInt(), data.readInt());
+        if (rows <= 0 || cols <= 0 || !isInside(start, rows, cols) || !isInside(goal, rows, cols))
+            throw new IOException("Invalid maze header: " + rows + "x" + cols + ", start " + start + ", goal " + goal);
+
+        int[][] mazeArray = new int[rows][cols];
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int chunkLength = 0;
+        int chunkIndex = 0;
+        int bitIndex = 8;
+        int current = 0;
+        for (int row = 0; row < rows; row++) {
+            int[] mazeRow = mazeArray[row];
+            for (int col = 0; col < cols; col++) {
+                if (bitIndex == 8) {
+                    if (chunkIndex == chunkLength) {
+                        chunkLength = in.read(chunk);
+                        if (chunkLength < 0)
+                            throw new EOFException("Maze data ended at cell (" + row + "," + col + ")");
+                        chunkIndex = 0;
+                    }
+                    current = chunk[chunkIndex++];
+                    bitIndex = 0;
+                }
+                mazeRow[col] = (current >> (7 - bitIndex)) & 1;
+                bitIndex++;
+            }
+        }
+        return new Maze(mazeArray, start, goal);
+    }
+
+    /**
+     * Reads one compressed maze from the stream into a bit-packed maze.
+     * The packed cells are copied byte by byte into the maze's bit storage, so no per-cell
+     * array is ever allocated.
+     *
+     * @param in Stream positioned at the start of a compressed maze
+     * @return The decoded bit-packed maze
+     * @throws IOException If the stream ends early or the header is invalid
+     */
+    public static BitMaze readBitMaze(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int rows = data.readInt();
+        int cols = data.readInt();
+        Position start = new Position(data.readInt(), data.readInt());
+        Position goal = new Position(data.readInt(), data.readInt());
+        if (rows <= 0 || cols <= 0 || !isInside(start, rows, cols) || !isInside(goal, rows, cols))
+            throw new IOException("Invalid maze header: " + rows + "x" + cols + ", start " + start + ", goal " + goal);
+
+        BitMaze maze = new BitMaze(rows, cols, start, goal);
+        long cellCount = (long) rows * cols;
+        long packedLength = (cellCount + 7) / 8;
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long cell = 0;
+        for (long remaining = packedLength; remaining > 0; ) {
+            int chunkLength = in.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+            if (chunkLength < 0)
+                throw new EOFException("Maze data ended after " + cell + " of " + cellCount + " cells");
+            for (int i = 0; i < chunkLength; i++, cell += 8) {
+                // stream bytes hold 8 cells most significant bit first; the maze stores them least significant bit first
+                int cellBits = Integer.reverse(chunk[i] & 0xFF) >>> 24;
+                if (cellBits != 0)
+                    maze.orCells(cell, cellBits);
+            }
+            remaining -= chunkLength;
+        }
+        return maze;
+    }
+
+    /**
+     * Checks whether a position lies inside the maze bounds.
+     */
+    private static boolean isInside(Position position, int rows, int cols) {
+        return position.getRowIndex() >= 0 && position.getRowIndex() < rows
+                && position.getColumnIndex() >= 0 && position.getColumnIndex() < cols;
+    }
+}
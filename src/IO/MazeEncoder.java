@@ -0,0 +1,132 @@
+package IO;
+
+import algorithms.mazeGenerators.BitMaze;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes mazes in the format of MyCompressorOutputStream:
+ * a 24-byte header (rows, cols, start row, start col, goal row, goal col)
+ * followed by the cells, 8 per byte, most significant bit first.
+ */
+public class MazeEncoder {
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Writes the maze to the stream. The stream is flushed but not closed.
+     *
+     * @param maze The maze to write
+     * @param out  Destination stream
+     * @throws IOException If writing fails
+     */
+    public static void writeBitMaze(BitMaze maze, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        writeHeader(data, maze.getRows(), maze.getCols(), maze.getStartPosition(), maze.getGoalPosition());
+
+        long cellCount = (long) maze.getRows() * maze.getCols();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int chunkLength = 0;
+        for (long cell = 0; cell < cellCount; cell += 8) {
+            int cellBits = maze.getCells(cell);
+            if (cellCount - cell < 8)
+                cellBits &= (1 << (cellCount - cell)) - 1;
+            chunk[chunkLength++] = (byte) (Integer.reverse(cellBits) >>> 24);
+            if (chunkLength == chunk.length) {
+                data.write(chunk, 0, chunkLength);
+                chunkLength = 0;
+            }
+        }
+        data.write(chunk, 0, chunkLength);
+        data.flush();
+    }
+
+    /**
+     * Writes an int[][] based maze to the stream. The stream is flushed but not closed.
+     *
+     * @param maze The maze to write
+     * @param out  Destination stream
+     * @throws IOException If writing fails
+     */
+    public static void writeMaze(Maze maze, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        int[][] cells = maze.getMazeArray();
+        int rows = cells.length;
+        int cols = rows == 0 ? 0 : cells[0].length;
+        writeHeader(data, rows, cols, maze.getStartPosition(), maze.getGoalPosition());
+
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int chunkLength = 0;
+        int packed = 0;
+        int packedCount = 0;
+        for (int[] row : cells) {
+            for (int cell : row) {
+                packed = packed << 1 | (cell == 1 ? 1 : 0);
+                if (++packedCount == 8) {
+                    chunk[chunkLength++] = (byte) packed;
+                    packed = 0;
+                    packedCount = 0;
+                    if (chunkLength == chunk.length) {
+                        data.write(chunk, 0, chunkLength);
+                        chunkLength = 0;
+                    }
+                }
+            }
+        }
+        if (packedCount > 0)
+            chunk[chunkLength++] = (byte) (packed << (8 - packedCount));
+        data.write(chunk, 0, chunkLength);
+        data.flush();
+    }
+
+    /**
+     * Encodes a maze in memory.
+     *
+     * @param maze The maze to encode
+     * @return The encoded maze
+     */
+    public static byte[] toBytes(Maze maze) {
+        int[][] cells = maze.getMazeArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) encodedSize(cells.length, cells.length == 0 ? 0 : cells[0].length));
+        try {
+            writeMaze(maze, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the 24-byte maze header.
+     *
+     * @param data  Destination stream
+     * @param rows  Number of rows
+     * @param cols  Number of columns
+     * @param start Start position
+     * @param goal  Goal position
+     * @throws IOException If writing fails
+     */
+    static void writeHeader(DataOutputStream data, int rows, int cols, Position start, Position goal) throws IOException {
+        data.writeInt(rows);
+        data.writeInt(cols);
+        data.writeInt(start.getRowIndex());
+        data.writeInt(start.getColumnIndex());
+        data.writeInt(goal.getRowIndex());
+        data.writeInt(goal.getColumnIndex());
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeBitMaze} writes for a maze of the given size.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return Encoded size in bytes
+     */
+    public static long encodedSize(int rows, int cols) {
+        return 24 + ((long) rows * cols + 7) / 8;
+    }
+}
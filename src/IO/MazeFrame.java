@@ -0,0 +1,130 @@
+package IO;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * One message of the framed maze protocol.
+ * On the wire a frame is: length (int, counting everything after it), type (byte),
+ * request ID (long) and the payload bytes.
+ */
+public class MazeFrame {
+    static final int HEADER_SIZE = 1 + 8;
+    private static final int READ_CHUNK = 64 * 1024;
+    private final byte type;
+    private final long requestId;
+    private final byte[] payload;
+
+    /**
+     * Constructs a frame.
+     *
+     * @param type      Message type, one of the {@link MazeProtocol} type constants
+     * @param requestId ID of the request this frame belongs to
+     * @param payload   Message body
+     */
+    public MazeFrame(byte type, long requestId, byte[] payload) {
+        this.type = type;
+        this.requestId = requestId;
+        this.payload = payload;
+    }
+
+    /**
+     * Reads the next frame from the stream.
+     *
+     * @param in Stream positioned at the start of a frame
+     * @return The frame read
+     * @throws java.io.EOFException If the stream ends before a complete frame
+     * @throws IOException          If the frame length is invalid or reading fails
+     */
+    public static MazeFrame read(DataInputStream in) throws IOException {
+        return read(in, MazeProtocol.MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * Reads the next frame from the stream, refusing frames longer than a limit.
+     * A large payload is read in growing chunks, so memory is only taken for bytes that actually arrive
+     * and not for the length a peer merely claims. The payload of a frame over the limit is skipped,
+     * so the next frame can still be read.
+     *
+     * @param in        Stream positioned at the start of a frame
+     * @param maxLength Largest frame length accepted, counting everything after the length field
+     * @return The frame read
+     * @throws java.io.EOFException   If the stream ends before a complete frame
+     * @throws FrameTooLargeException If the frame is over the limit; the stream is then at the next frame
+     * @throws IOException            If the frame length is invalid or reading fails
+     */
+    public static MazeFrame read(DataInputStream in, int maxLength) throws IOException {
+        int length = in.readInt();
+        if (length < HEADER_SIZE || length > MazeProtocol.MAX_FRAME_LENGTH)
+            throw new IOException("Invalid frame length: " + length);
+        byte type = in.readByte();
+        long requestId = in.readLong();
+        if (length > maxLength) {
+            in.skipNBytes(length - HEADER_SIZE);
+            throw new FrameTooLargeException(requestId, length, maxLength);
+        }
+        return new MazeFrame(type, requestId, readPayload(in, length - HEADER_SIZE));
+    }
+
+    /**
+     * Reads a payload of a known length, growing the buffer as the bytes arrive.
+     *
+     * @param in     Source stream
+     * @param length Payload length
+     * @return The payload bytes
+     * @throws IOException If the stream ends early or reading fails
+     */
+    private static byte[] readPayload(DataInputStream in, int length) throws IOException {
+        byte[] payload = new byte[Math.min(length, READ_CHUNK)];
+        int read = 0;
+        while (true) {
+            in.readFully(payload, read, payload.length - read);
+            read = payload.length;
+            if (read == length)
+                return payload;
+            payload = Arrays.copyOf(payload, (int) Math.min(length, 2L * read));
+        }
+    }
+
+    /**
+     * Writes this frame to the stream. The stream is not flushed.
+     *
+     * @param out Destination stream
+     * @throws IOException If writing fails
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(HEADER_SIZE + payload.length);
+        out.writeByte(type);
+        out.writeLong(requestId);
+        out.write(payload);
+    }
+
+    /**
+     * Returns the message type.
+     *
+     * @return One of the {@link MazeProtocol} type constants
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Returns the ID of the request this frame belongs to.
+     *
+     * @return The request ID
+     */
+    public long getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Returns the message body.
+     *
+     * @return The payload bytes
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+}
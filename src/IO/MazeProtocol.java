@@ -0,0 +1,427 @@
+package IO;
+
+import algorithms.mazeGenerators.BitMaze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Constants and payload helpers of the framed maze protocol.
+ * <p>
+ * A connection starts with each side sending {@link #MAGIC} and its {@link #VERSION}; after that
+ * both sides exchange {@link MazeFrame}s. Requests and their responses share a request ID, so many
+ * requests can be in flight on one connection.
+ * <ul>
+ *     <li>{@link #GENERATE}: rows and cols (ints), optionally followed by a generator name, answered with {@link #MAZE}</li>
+ *     <li>{@link #MAZE}: a maze in MyCompressorOutputStream format</li>
+ *     <li>{@link #SOLVE}: a maze in MyCompressorOutputStream format, optionally followed by a searching algorithm name,
+ *     answered with {@link #SOLUTION}</li>
+ *     <li>{@link #SOLUTION}: a solution in {@link SolutionCodec} format</li>
+ *     <li>{@link #GENERATE_AND_SOLVE}: rows and cols (ints), optionally followed by a generator name, a newline and
+ *     a searching algorithm name (either may be empty), answered with {@link #MAZE_AND_SOLUTION}</li>
+ *     <li>{@link #MAZE_AND_SOLUTION}: a maze in MyCompressorOutputStream format followed by its solution
+ *     in {@link SolutionCodec} format</li>
+ *     <li>{@link #GENERATE_SEEDED}: rows and cols (ints), a seed (long) and whether to solve the maze too (byte),
+ *     optionally followed by generator and searching algorithm names as in {@link #GENERATE_AND_SOLVE}. Answered with
+ *     {@link #SEEDED_MAZE}, or as an unseeded request ({@link #MAZE} or {@link #MAZE_AND_SOLUTION}) if the generator
+ *     cannot be seeded</li>
+ *     <li>{@link #SEEDED_MAZE}: a {@link MazeSeed} record naming the generator, followed by the maze and,
+ *     if it was asked for, its solution</li>
+ *     <li>{@link #DEADLINE}: a time limit in milliseconds (int), followed by the type (byte) and payload of another
+ *     request. The request is answered as if it were sent on its own, but the server drops it, answering with an
+ *     {@link #ERROR}, if it has not been answered within the time limit</li>
+ *     <li>{@link #CANCEL}: empty; the request with the same ID is no longer wanted. It gets no answer</li>
+ *     <li>{@link #OBJECT}: a serialized Java object, the answer of a hosted strategy request</li>
+ *     <li>{@link #STATS}: empty, answered with a {@link #STATS} frame holding the server's metrics as UTF-8 text</li>
+ *     <li>{@link #OVERLOADED}: a UTF-8 message, sent instead of the expected response when the server has no room for
+ *     the request right now; the request may succeed later</li>
+ *     <li>{@link #ERROR}: a UTF-8 error message, sent instead of the expected response</li>
+ *     <li>{@link #STRATEGY_GENERATE_MAZE}, {@link #STRATEGY_SOLVE_SEARCH_PROBLEM} and the other types from
+ *     {@link #FIRST_STRATEGY} on: a serialized request object for a one-shot server strategy the server hosts under
+ *     that type, answered with an {@link #OBJECT} holding the object the strategy wrote</li>
+ * </ul>
+ * The server answers every type it has registered on one port, {@link #SERVICE_PORT} unless configured otherwise.
+ * Algorithm names are UTF-8 and run to the end of the payload; without one the server uses its configured algorithm.
+ */
+public class MazeProtocol {
+    public static final int MAGIC = 0x4D5A5046; // "MZPF"
+    public static final byte VERSION = 1;
+    public static final int MAX_FRAME_LENGTH = 1 << 30;
+    public static final int SERVICE_PORT = 5402;
+
+    public static final byte GENERATE = 1;
+    public static final byte MAZE = 2;
+    public static final byte SOLVE = 3;
+    public static final byte SOLUTION = 4;
+    public static final byte GENERATE_AND_SOLVE = 5;
+    public static final byte MAZE_AND_SOLUTION = 6;
+    public static final byte GENERATE_SEEDED = 7;
+    public static final byte SEEDED_MAZE = 8;
+    private static final int GENERATE_SEEDED_BODY = 4 + 4 + 8 + 1;
+    public static final byte DEADLINE = 9;
+    private static final int DEADLINE_HEADER = 4 + 1;
+    public static final byte CANCEL = 10;
+    public static final byte OBJECT = 11;
+    public static final byte STATS = 12;
+    public static final byte OVERLOADED = 14;
+    public static final byte ERROR = 15;
+    public static final byte FIRST_STRATEGY = 16;
+    public static final byte STRATEGY_GENERATE_MAZE = 16;
+    public static final byte STRATEGY_SOLVE_SEARCH_PROBLEM = 17;
+
+    /**
+     * Writes the connection preamble. The stream is not flushed.
+     *
+     * @param out Destination stream
+     * @throws IOException If writing fails
+     */
+    public static void writePreamble(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * Reads and checks the preamble sent by the other side.
+     *
+     * @param in Source stream
+     * @return The protocol version of the other side
+     * @throws IOException If the preamble is missing or the version is not supported
+     */
+    public static byte readPreamble(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC)
+            throw new IOException("Not a maze protocol stream");
+        return readVersion(in);
+    }
+
+    /**
+     * Reads and checks the version byte that follows the magic number.
+     *
+     * @param in Source stream
+     * @return The protocol version of the other side
+     * @throws IOException If the version is not supported
+     */
+    public static byte readVersion(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version < 1 || version > VERSION)
+            throw new IOException("Unsupported maze protocol version: " + version);
+        return version;
+    }
+
+    /**
+     * Builds the payload of a {@link #GENERATE} request.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return The payload bytes
+     */
+    public static byte[] generateRequest(int rows, int cols) {
+        return generateRequest(rows, cols, null);
+    }
+
+    /**
+     * Builds the payload of a {@link #GENERATE} request for a specific generator.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param algorithm Name of the generator, or null for the server's choice
+     * @return The payload bytes
+     */
+    public static byte[] generateRequest(int rows, int cols, String algorithm) {
+        return withAlgorithm(ByteBuffer.allocate(8).putInt(rows).putInt(cols).array(), algorithm);
+    }
+
+    /**
+     * Builds the payload of a {@link #GENERATE_AND_SOLVE} request.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param generator Name of the generator, or null for the server's choice
+     * @param solver    Name of the searching algorithm, or null for the server's choice
+     * @return The payload bytes
+     */
+    public static byte[] generateAndSolveRequest(int rows, int cols, String generator, String solver) {
+        return generateRequest(rows, cols, algorithmPair(generator, solver));
+    }
+
+    /**
+     * Builds the payload of a {@link #GENERATE_SEEDED} request.
+     *
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @param seed          Seed for the generator
+     * @param withSolution  true to have the maze solved in the same request
+     * @param generator     Name of the generator, or null for the server's choice
+     * @param solver        Name of the searching algorithm, or null for the server's choice
+     * @return The payload bytes
+     */
+    public static byte[] generateSeededRequest(int rows, int cols, long seed, boolean withSolution, String generator, String solver) {
+        byte[] body = ByteBuffer.allocate(GENERATE_SEEDED_BODY).putInt(rows).putInt(cols).putLong(seed)
+                .put((byte) (withSolution ? 1 : 0)).array();
+        return withAlgorithm(body, algorithmPair(generator, solver));
+    }
+
+    /**
+     * Joins a generator and a searching algorithm name for a request payload.
+     *
+     * @param generator Name of the generator, or null
+     * @param solver    Name of the searching algorithm, or null
+     * @return The names separated by a newline, or null if both are null
+     */
+    private static String algorithmPair(String generator, String solver) {
+        if (generator == null && solver == null)
+            return null;
+        return (generator == null ? "" : generator) + "\n" + (solver == null ? "" : solver);
+    }
+
+    /**
+     * Reads the generator and searching algorithm names of a {@link #GENERATE_AND_SOLVE} request.
+     *
+     * @param payload The payload bytes
+     * @return The generator name and the searching algorithm name, each null if the request names none
+     */
+    public static String[] readGenerateAndSolveAlgorithms(byte[] payload) {
+        return readAlgorithmPair(payload, 8);
+    }
+
+    /**
+     * Reads the generator and searching algorithm names of a {@link #GENERATE_SEEDED} request.
+     *
+     * @param payload The payload bytes
+     * @return The generator name and the searching algorithm name, each null if the request names none
+     */
+    public static String[] readGenerateSeededAlgorithms(byte[] payload) {
+        return readAlgorithmPair(payload, GENERATE_SEEDED_BODY);
+    }
+
+    /**
+     * Reads a generator and a searching algorithm name that follow a request body.
+     *
+     * @param payload    The payload bytes
+     * @param bodyLength Length of the request body before the names
+     * @return The generator name and the searching algorithm name, each null if the request names none
+     */
+    private static String[] readAlgorithmPair(byte[] payload, int bodyLength) {
+        String algorithms = readAlgorithm(payload, bodyLength);
+        if (algorithms == null)
+            return new String[2];
+        String[] names = algorithms.split("\n", 2);
+        String generator = names[0].isEmpty() ? null : names[0];
+        String solver = names.length < 2 || names[1].isEmpty() ? null : names[1];
+        return new String[]{generator, solver};
+    }
+
+    /**
+     * Builds the payload of a {@link #MAZE_AND_SOLUTION} response.
+     *
+     * @param compressedMaze  The maze in MyCompressorOutputStream format
+     * @param encodedSolution Its solution in {@link SolutionCodec} format
+     * @return The payload bytes
+     */
+    public static byte[] mazeAndSolution(byte[] compressedMaze, byte[] encodedSolution) {
+        byte[] payload = Arrays.copyOf(compressedMaze, compressedMaze.length + encodedSolution.length);
+        System.arraycopy(encodedSolution, 0, payload, compressedMaze.length, encodedSolution.length);
+        return payload;
+    }
+
+    /**
+     * Returns the solution that follows the maze in a {@link #MAZE_AND_SOLUTION} or {@link #SEEDED_MAZE} payload.
+     *
+     * @param payload    The payload bytes
+     * @param mazeOffset Index where the maze starts
+     * @return The solution in {@link SolutionCodec} format, or null if the payload holds no solution
+     * @throws IOException If the payload is shorter than the maze header
+     */
+    public static byte[] readIncludedSolution(byte[] payload, int mazeOffset) throws IOException {
+        if (payload.length - mazeOffset < 8)
+            throw new IOException("Maze payload is too short");
+        ByteBuffer header = ByteBuffer.wrap(payload, mazeOffset, 8);
+        long solutionOffset = mazeOffset + MazeEncoder.encodedSize(header.getInt(), header.getInt());
+        if (payload.length <= solutionOffset)
+            return null;
+        return Arrays.copyOfRange(payload, (int) solutionOffset, payload.length);
+    }
+
+    /**
+     * Builds the payload of a {@link #SEEDED_MAZE} response.
+     *
+     * @param mazeSeed        The maze's seed record
+     * @param compressedMaze  The maze in MyCompressorOutputStream format
+     * @param encodedSolution Its solution in {@link SolutionCodec} format, or null if it was not asked for
+     * @return The payload bytes
+     */
+    public static byte[] seededMaze(MazeSeed mazeSeed, byte[] compressedMaze, byte[] encodedSolution) {
+        byte[] record = mazeSeed.toBytes();
+        byte[] maze = encodedSolution == null ? compressedMaze : mazeAndSolution(compressedMaze, encodedSolution);
+        byte[] payload = Arrays.copyOf(record, record.length + maze.length);
+        System.arraycopy(maze, 0, payload, record.length, maze.length);
+        return payload;
+    }
+
+    /**
+     * Builds the payload of a {@link #SOLVE} request for a specific searching algorithm.
+     *
+     * @param maze      The maze to solve
+     * @param algorithm Name of the searching algorithm, or null for the server's choice
+     * @return The payload bytes
+     */
+    public static byte[] solveRequest(BitMaze maze, String algorithm) {
+        return withAlgorithm(mazePayload(maze), algorithm);
+    }
+
+    /**
+     * Appends an algorithm name to a request body.
+     *
+     * @param body      The request body
+     * @param algorithm The algorithm name, or null for none
+     * @return The payload bytes
+     */
+    public static byte[] withAlgorithm(byte[] body, String algorithm) {
+        if (algorithm == null)
+            return body;
+        byte[] name = algorithm.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = Arrays.copyOf(body, body.length + name.length);
+        System.arraycopy(name, 0, payload, body.length, name.length);
+        return payload;
+    }
+
+    /**
+     * Reads the algorithm name that follows a request body.
+     *
+     * @param payload    The payload bytes
+     * @param bodyLength Length of the request body before the name
+     * @return The algorithm name, or null if the payload has none
+     */
+    public static String readAlgorithm(byte[] payload, long bodyLength) {
+        if (payload.length <= bodyLength)
+            return null;
+        return new String(payload, (int) bodyLength, payload.length - (int) bodyLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the length of the maze at the start of a {@link #SOLVE} or {@link #MAZE} payload, taken from its header.
+     *
+     * @param payload The payload bytes
+     * @return Length of the encoded maze
+     * @throws IOException If the payload is shorter than the maze header
+     */
+    public static long mazeLength(byte[] payload) throws IOException {
+        if (payload.length < 8)
+            throw new IOException("Maze payload is too short");
+        ByteBuffer header = ByteBuffer.wrap(payload);
+        return MazeEncoder.encodedSize(header.getInt(), header.getInt());
+    }
+
+    /**
+     * Builds the payload of a {@link #DEADLINE} request.
+     *
+     * @param timeoutMillis Time the server has to answer, in milliseconds
+     * @param type          Type of the wrapped request
+     * @param payload       Payload of the wrapped request
+     * @return The payload bytes
+     */
+    public static byte[] withDeadline(int timeoutMillis, byte type, byte[] payload) {
+        return ByteBuffer.allocate(DEADLINE_HEADER + payload.length).putInt(timeoutMillis).put(type).put(payload).array();
+    }
+
+    /**
+     * Reads the time limit of a {@link #DEADLINE} request.
+     *
+     * @param payload The payload bytes
+     * @return The time limit in milliseconds
+     * @throws IOException If the payload is too short
+     */
+    public static int readDeadlineMillis(byte[] payload) throws IOException {
+        if (payload.length < DEADLINE_HEADER)
+            throw new IOException("Deadline request too short");
+        return ByteBuffer.wrap(payload).getInt();
+    }
+
+    /**
+     * Returns the request wrapped in a {@link #DEADLINE} request, with the same request ID.
+     *
+     * @param frame The deadline request
+     * @return The wrapped request
+     * @throws IOException If the payload is too short
+     */
+    public static MazeFrame unwrapDeadline(MazeFrame frame) throws IOException {
+        byte[] payload = frame.getPayload();
+        if (payload.length < DEADLINE_HEADER)
+            throw new IOException("Deadline request too short");
+        return new MazeFrame(payload[4], frame.getRequestId(), Arrays.copyOfRange(payload, DEADLINE_HEADER, payload.length));
+    }
+
+    /**
+     * Builds the payload of an {@link #ERROR} response.
+     *
+     * @param message The error message
+     * @return The payload bytes
+     */
+    public static byte[] errorMessage(String message) {
+        return String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the message of an {@link #ERROR} response.
+     *
+     * @param payload The payload bytes
+     * @return The error message
+     */
+    public static String readErrorMessage(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes a request object for a hosted strategy, or the answer of one, as the payload of a frame.
+     *
+     * @param object The object
+     * @return The payload bytes
+     * @throws IOException If the object cannot be serialized
+     */
+    public static byte[] objectPayload(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the object serialized in a hosted strategy frame or an {@link #OBJECT} response.
+     *
+     * @param payload The payload bytes
+     * @return The object
+     * @throws IOException If the payload does not hold a serialized object of a known class
+     */
+    public static Object readObject(byte[] payload) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in object payload: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Encodes a bit-packed maze as the payload of a {@link #MAZE} or {@link #SOLVE} frame.
+     *
+     * @param maze The maze
+     * @return The payload bytes
+     */
+    public static byte[] mazePayload(BitMaze maze) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) MazeEncoder.encodedSize(maze.getRows(), maze.getCols()));
+        try {
+            MazeEncoder.writeBitMaze(maze, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+}
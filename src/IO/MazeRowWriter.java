@@ -0,0 +1,88 @@
+package IO;
+
+import algorithms.mazeGenerators.IMazeRowSink;
+import algorithms.mazeGenerators.Position;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a maze handed out row by row in the format of MyCompressorOutputStream, as {@link MazeEncoder} does
+ * for a whole maze. Only the row being packed is held, so mazes of any size can be written to a stream.
+ * The stream is flushed after the last row but not closed.
+ */
+public class MazeRowWriter implements IMazeRowSink {
+    private static final int CHUNK_SIZE = 8192;
+    private final DataOutputStream data;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLength;
+    private int packed;
+    private int packedCount;
+    private int cols;
+    private int rowsLeft;
+
+    /**
+     * Constructs a writer.
+     *
+     * @param out Destination stream
+     */
+    public MazeRowWriter(OutputStream out) {
+        this.data = new DataOutputStream(out);
+    }
+
+    /**
+     * Writes the maze header.
+     *
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @param startPosition Start position
+     * @param goalPosition  Goal position
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void start(int rows, int cols, Position startPosition, Position goalPosition) throws IOException {
+        this.cols = cols;
+        this.rowsLeft = rows;
+        MazeEncoder.writeHeader(data, rows, cols, startPosition, goalPosition);
+    }
+
+    /**
+     * Packs a row into the output, 8 cells per byte with the first cell in the most significant bit.
+     * Bytes span row boundaries; after the last row the partial byte and the stream are flushed.
+     *
+     * @param walls Wall bits of the row
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void row(long[] walls) throws IOException {
+        if (rowsLeft == 0)
+            throw new IOException("More rows than the maze header announced");
+        for (int col = 0; col < cols; ) {
+            // take as many cells as the current byte still needs, reversed so the first cell is the highest bit
+            int count = Math.min(8 - packedCount, cols - col);
+            int shift = col & 63;
+            long bits = walls[col >>> 6] >>> shift;
+            if (shift + count > 64)
+                bits |= walls[(col >>> 6) + 1] << (64 - shift);
+            packed = packed << count | Integer.reverse((int) bits & ((1 << count) - 1)) >>> (32 - count);
+            packedCount += count;
+            col += count;
+            if (packedCount == 8) {
+                chunk[chunkLength++] = (byte) packed;
+                packed = 0;
+                packedCount = 0;
+                if (chunkLength == chunk.length) {
+                    data.write(chunk, 0, chunkLength);
+                    chunkLength = 0;
+                }
+            }
+        }
+        if (--rowsLeft == 0) {
+            if (packedCount > 0)
+                chunk[chunkLength++] = (byte) (packed << (8 - packedCount));
+            data.write(chunk, 0, chunkLength);
+            data.flush();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package IO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Everything needed to generate a maze again bit for bit: the generator's name, the size and the seed.
+ * Written as a small record that starts with {@link #MAGIC}, used by save files and by
+ * {@link MazeProtocol#SEEDED_MAZE} responses in place of (or in front of) the compressed maze.
+ * Read as the row count that starts a compressed maze, the magic number would be far more rows than fit a frame,
+ * so the two cannot be mistaken for each other.
+ */
+public class MazeSeed {
+    public static final int MAGIC = 0x4D5A5345; // "MZSE"
+    private final String algorithm;
+    private final int rows;
+    private final int cols;
+    private final long seed;
+
+    /**
+     * Constructs a seed record.
+     *
+     * @param algorithm Name of the generator
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param seed      The generator's seed
+     */
+    public MazeSeed(String algorithm, int rows, int cols, long seed) {
+        this.algorithm = algorithm;
+        this.rows = rows;
+        this.cols = cols;
+        this.seed = seed;
+    }
+
+    /**
+     * Checks whether bytes start with a seed record rather than a compressed maze.
+     *
+     * @param bytes  The bytes
+     * @param offset Index of the first byte
+     * @return true if a seed record starts there
+     */
+    public static boolean isSeedRecord(byte[] bytes, int offset) {
+        return bytes.length - offset >= Integer.BYTES && ByteBuffer.wrap(bytes, offset, Integer.BYTES).getInt() == MAGIC;
+    }
+
+    /**
+     * Reads a seed record.
+     *
+     * @param bytes  The bytes
+     * @param offset Index of the record's first byte
+     * @return The seed record
+     * @throws IOException If the bytes do not hold a complete seed record
+     */
+    public static MazeSeed read(byte[] bytes, int offset) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, offset, bytes.length - offset));
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a maze seed record");
+        int rows = in.readInt();
+        int cols = in.readInt();
+        long seed = in.readLong();
+        return new MazeSeed(in.readUTF(), rows, cols, seed);
+    }
+
+    /**
+     * Encodes the record.
+     *
+     * @return The record bytes
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(rows);
+            out.writeInt(cols);
+            out.writeLong(seed);
+            out.writeUTF(algorithm);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the number of bytes {@link #toBytes()} produces.
+     *
+     * @return Encoded length in bytes
+     */
+    public int getEncodedLength() {
+        return toBytes().length;
+    }
+
+    /**
+     * Returns the generator's name.
+     *
+     * @return The generator name
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the generator's seed.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,127 @@
+package IO;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.AState;
+import algorithms.search.Solution;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Compact binary encoding of a maze solution: the start cell followed by one 2-bit direction
+ * code per step, optionally run-length encoded when the path has long straight runs.
+ * <p>
+ * Layout: flags byte, start row, start column, number of steps (ints), then either
+ * 4 direction codes per byte (most significant bits first) or, with {@link #RUN_LENGTH},
+ * one byte per run holding the direction in the top 2 bits and the run length minus one
+ * in the low 6 bits.
+ */
+public class SolutionCodec {
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+    public static final int RUN_LENGTH = 1;
+    public static final int HEADER_SIZE = 13;
+    private static final int MAX_RUN = 64;
+
+    /**
+     * Encodes a solution found on the given maze.
+     * Diagonal steps (which SearchableMaze allows) are written as two straight steps through
+     * the open corner cell, so every step fits in a 2-bit code.
+     *
+     * @param solution The solution to encode
+     * @param maze     The maze the solution belongs to
+     * @return The encoded solution
+     * @throws IllegalArgumentException If two consecutive cells of the path are not adjacent
+     */
+    public static byte[] encode(Solution solution, Maze maze) {
+        ArrayList<AState> path = solution.getSolutionPath();
+        int[][] mazeArray = maze.getMazeArray();
+        ByteArrayOutputStream directions = new ByteArrayOutputStream(path.size());
+        for (int i = 1; i < path.size(); i++) {
+            AState from = path.get(i - 1);
+            AState to = path.get(i);
+            int rowStep = to.getRow() - from.getRow();
+            int colStep = to.getCol() - from.getCol();
+            if (Math.abs(rowStep) > 1 || Math.abs(colStep) > 1 || (rowStep == 0 && colStep == 0))
+                throw new IllegalArgumentException("Cells " + from + " and " + to + " are not adjacent");
+            if (rowStep != 0 && colStep != 0) {
+                if (mazeArray[from.getRow()][to.getCol()] == 0) {
+                    directions.write(colDirection(colStep));
+                    directions.write(rowDirection(rowStep));
+                } else {
+                    directions.write(rowDirection(rowStep));
+                    directions.write(colDirection(colStep));
+                }
+            } else if (rowStep != 0) {
+                directions.write(rowDirection(rowStep));
+            } else {
+                directions.write(colDirection(colStep));
+            }
+        }
+        AState start = path.isEmpty() ? null : path.get(0);
+        return encode(start == null ? 0 : start.getRow(), start == null ? 0 : start.getCol(), directions.toByteArray(), path.isEmpty());
+    }
+
+    /**
+     * Encodes a path given as a start cell and one direction code per step.
+     * Run-length encoding is used when it is smaller.
+     *
+     * @param startRow   Row of the first cell
+     * @param startCol   Column of the first cell
+     * @param directions One of {@link #UP}, {@link #DOWN}, {@link #LEFT}, {@link #RIGHT} per step
+     * @param empty      true for a solution with no cells at all
+     * @return The encoded solution
+     */
+    public static byte[] encode(int startRow, int startCol, byte[] directions, boolean empty) {
+        int runs = 0;
+        for (int i = 0; i < directions.length; runs++)
+            i += runLength(directions, i);
+        boolean runLength = runs < (directions.length + 3) / 4;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + (runLength ? runs : (directions.length + 3) / 4));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(runLength ? RUN_LENGTH : 0);
+            out.writeInt(startRow);
+            out.writeInt(startCol);
+            out.writeInt(empty ? -1 : directions.length);
+            if (runLength) {
+                for (int i = 0; i < directions.length; ) {
+                    int length = runLength(directions, i);
+                    out.writeByte(directions[i] << 6 | (length - 1));
+                    i += length;
+                }
+            } else {
+                for (int i = 0; i < directions.length; i += 4) {
+                    int packed = 0;
+                    for (int j = 0; j < 4; j++)
+                        packed = packed << 2 | (i + j < directions.length ? directions[i + j] : 0);
+                    out.writeByte(packed);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the length of the run of equal directions starting at the given index, at most 64.
+     */
+    private static int runLength(byte[] directions, int from) {
+        int length = 1;
+        while (length < MAX_RUN && from + length < directions.length && directions[from + length] == directions[from])
+            length++;
+        return length;
+    }
+
+    private static int rowDirection(int rowStep) {
+        return rowStep < 0 ? UP : DOWN;
+    }
+
+    private static int colDirection(int colStep) {
+        return colStep < 0 ? LEFT : RIGHT;
+    }
+}
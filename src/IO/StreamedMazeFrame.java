@@ -0,0 +1,61 @@
+package IO;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A frame whose payload is produced while the frame is written instead of being held in memory.
+ * The payload length has to be known up front, since it is part of the frame header.
+ * On the wire it is an ordinary {@link MazeFrame}; {@link #getPayload()} of this object is empty.
+ */
+public class StreamedMazeFrame extends MazeFrame {
+    private final int payloadLength;
+    private final PayloadWriter payloadWriter;
+
+    /**
+     * Constructs a streamed frame.
+     *
+     * @param type          Message type, one of the {@link MazeProtocol} type constants
+     * @param requestId     ID of the request this frame belongs to
+     * @param payloadLength Number of bytes the writer produces
+     * @param payloadWriter Writes the payload
+     * @throws IOException If the payload does not fit in a frame
+     */
+    public StreamedMazeFrame(byte type, long requestId, long payloadLength, PayloadWriter payloadWriter) throws IOException {
+        super(type, requestId, new byte[0]);
+        if (payloadLength < 0 || payloadLength > MazeProtocol.MAX_FRAME_LENGTH - HEADER_SIZE)
+            throw new IOException("Payload of " + payloadLength + " bytes does not fit in a frame");
+        this.payloadLength = (int) payloadLength;
+        this.payloadWriter = payloadWriter;
+    }
+
+    /**
+     * Writes the frame header, then lets the payload writer produce the payload.
+     * The stream is not flushed.
+     *
+     * @param out Destination stream
+     * @throws IOException If writing fails
+     */
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(HEADER_SIZE + payloadLength);
+        out.writeByte(getType());
+        out.writeLong(getRequestId());
+        payloadWriter.writeTo(out);
+    }
+
+    /**
+     * Writes the payload of a streamed frame.
+     */
+    public interface PayloadWriter {
+
+        /**
+         * Writes exactly the announced number of payload bytes.
+         *
+         * @param out Destination stream
+         * @throws IOException If writing fails
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -1,9 +1,11 @@
 package Model;
 
+import algorithms.mazeGenerators.BitMaze;
 import algorithms.mazeGenerators.Maze;
 import algorithms.search.Solution;
 
 import java.util.Observer;
+import java.util.concurrent.CompletableFuture;
 
 public interface IModel {
 
@@ -15,6 +17,16 @@ public interface IModel {
      */
     void generateMaze(int rows, int cols);
 
+    /**
+     * Generates a new maze in the background. A pending generation that has not finished yet
+     * is cancelled and its maze is discarded. Observers are notified when the new maze is in place.
+     *
+     * @param rows Number of rows in the maze
+     * @param cols Number of columns in the maze
+     * @return A future completed with the generated maze
+     */
+    CompletableFuture<BitMaze> generateMazeAsync(int rows, int cols);
+
     /**
      * Returns the current maze.
      *
@@ -22,11 +34,50 @@ public interface IModel {
      */
     Maze getMaze();
 
+    /**
+     * Returns the current maze with one bit per cell.
+     * Preferred over {@link #getMaze()} for wall checks and drawing.
+     *
+     * @return The current BitMaze object
+     */
+    BitMaze getBitMaze();
+
     /**
      * Solves the current maze using a search algorithm.
      */
     void solveMaze();
 
+    /**
+     * Solves the current maze in the background. A pending solve that has not finished yet
+     * is cancelled. Observers are notified when the solution is in place.
+     *
+     * @return A future completed with the solution of the current maze
+     */
+    CompletableFuture<Solution> solveMazeAsync();
+
+    /**
+     * Solves the current maze from the player's position to the goal in the background,
+     * on a junction graph of the maze that is built once and kept with it.
+     * A pending solve that has not finished yet is cancelled. Observers are notified when the solution is in place.
+     *
+     * @return A future completed with the solution from the player's position
+     */
+    CompletableFuture<Solution> solveFromPlayerAsync();
+
+    /**
+     * Returns the next step on a shortest path from the player's position to the goal.
+     *
+     * @return The direction, or null at the goal, if the goal cannot be reached or while the maze's hints are still being computed
+     */
+    MovementDirection getHint();
+
+    /**
+     * Returns a shortest path from the player's position to the goal, without asking the server.
+     *
+     * @return The solution from the player's position, or null while the maze's hints are still being computed
+     */
+    Solution getSolutionFromPlayer();
+
     /**
      * Returns the solution of the current maze.
      *
@@ -82,4 +133,13 @@ public interface IModel {
      * @param name The name to assign to the saved maze file
      */
     void saveMaze(String name);
+
+    /**
+     * Loads a maze saved with {@link #saveMaze} in the background and makes it the current maze,
+     * as {@link #generateMazeAsync} does with a new one.
+     *
+     * @param name The name the maze was saved under
+     * @return A future completed with the loaded maze
+     */
+    CompletableFuture<BitMaze> loadMazeAsync(String name);
 }
\ No newline at end of file
@@ -1,32 +1,74 @@
 package Model;
 
-import Client.Client;
-import Client.IClientStrategy;
-import IO.MyCompressorOutputStream;
-import IO.MyDecompressorInputStream;
+import IO.MazeDecoder;
+import IO.MazeEncoder;
+import IO.MazeFrame;
+import IO.MazeProtocol;
+import IO.MazeSeed;
+import IO.SolutionCodec;
+import algorithms.mazeGenerators.BitMaze;
 import algorithms.mazeGenerators.Maze;
-import algorithms.search.AState;
+import algorithms.mazeGenerators.Position;
+import algorithms.search.CompactSolution;
+import algorithms.search.DistanceField;
+import algorithms.search.JunctionGraph;
+import algorithms.search.MazeGrid;
 import algorithms.search.Solution;
 
 import java.io.*;
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MyModel extends Observable implements IModel{
+    private static final ServerConnectionPool servicePool = new ServerConnectionPool(InetAddress.getLoopbackAddress(),
+            Integer.getInteger("maze.service.port", MazeProtocol.SERVICE_PORT), 4);
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "model-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService speculationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "model-speculation");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private static volatile boolean useObjectProtocol = Boolean.getBoolean("maze.objectProtocol");
+    private static volatile boolean solveOnGenerate = Boolean.parseBoolean(System.getProperty("maze.solveOnGenerate", "true"));
+    private static final int requestTimeoutMillis = Integer.getInteger("maze.requestTimeoutMillis", 60_000);
+    private volatile BitMaze bitMaze;
     private Maze maze;
-    private int playerRow;
-    private int playerCol;
+    private volatile int playerRow;
+    private volatile int playerCol;
     private Solution solution;
+    private JunctionGraph junctionGraph;
+    private DistanceField distanceField;
+    private MazeSeed mazeSeed;
+    private CompletableFuture<BitMaze> pendingGeneration;
+    private CompletableFuture<Solution> pendingSolve;
+    private CompletableFuture<Solution> speculativeSolve;
+    private BitMaze speculativeMaze;
+    private volatile boolean speculationUsed;
+    private final AtomicLong speculationsStarted = new AtomicLong();
+    private final AtomicLong speculationsUsed = new AtomicLong();
+    private final AtomicLong speculationsWasted = new AtomicLong();
+    private volatile String generatingAlgorithm;
+    private volatile String solvingAlgorithm;
 
     /**
-     * Generates a new maze using the server at port 5400.
-     * Initializes the player position at the maze's start.
+     * Generates a new maze and waits for it.
      *
      * @param rows Number of rows in the maze
      * @param cols Number of columns in the maze
@@ -34,77 +76,613 @@ public class MyModel extends Observable implements IModel{
     @Override
     public void generateMaze(int rows, int cols) {
         try {
-            Client client = new Client(InetAddress.getLocalHost(), 5400, new IClientStrategy() {
-                public void clientStrategy(InputStream inFromServer, OutputStream outToServer) {
-                    try {
-                        ObjectOutputStream toServer = new ObjectOutputStream(outToServer);
-                        ObjectInputStream fromServer = new ObjectInputStream(inFromServer);
-                        toServer.flush();
-                        int[] mazeDimensions = new int[]{rows, cols}; toServer.writeObject(mazeDimensions); //send maze dimensions to server
-                        toServer.flush();
-                        byte[] compressedMaze = (byte[]) fromServer.readObject(); //read generated maze (compressed with MyCompressor) from server
-                        InputStream is = new MyDecompressorInputStream(new ByteArrayInputStream(compressedMaze));
-                        byte[] decompressedMaze = new byte[(rows * cols) + 100 /*CHANGE SIZE ACCORDING TO YOU MAZE SIZE*/]; //allocating byte[] for the decompressed maze -
-                        is.read(decompressedMaze); //Fill decompressedMaze with bytes
-                        maze = new Maze(decompressedMaze);
-                        playerRow = maze.getStartPosition().getRowIndex();
-                        playerCol = maze.getStartPosition().getColumnIndex();
-                    } catch (Exception e) { e.printStackTrace();
-                    }
-                }
-            });
-            client.communicateWithServer();
-        } catch (UnknownHostException e) { e.printStackTrace();
+            generateMazeAsync(rows, cols).join();
+        } catch (CancellationException | CompletionException e) { e.printStackTrace();
+        }
+    }
+
+    /**
+     * Generates a new maze in the background using the maze service
+     * (with its hosted generate strategy if the object protocol is selected).
+     * The maze is requested with a random seed; if the server's generator can be seeded, the maze's
+     * seed record comes back with it and {@link #saveMaze} stores the record instead of the maze.
+     * While solutions are asked for with the maze (see {@link #setSolveOnGenerate}), the multiplexed
+     * server solves the maze where it generated it and sends the solution in the same response;
+     * it is kept ready for {@link #solveMazeAsync()} like a speculative solve.
+     * Cancels the generation, solve and speculative solve still pending for the previous maze.
+     * Once the maze arrives, initializes the player position at the maze's start and notifies observers.
+     *
+     * @param rows Number of rows in the maze
+     * @param cols Number of columns in the maze
+     * @return A future completed with the generated maze
+     */
+    @Override
+    public CompletableFuture<BitMaze> generateMazeAsync(int rows, int cols) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        return installMaze(requestMaze(rows, cols, seed, generatingAlgorithm, false), null);
+    }
+
+    /**
+     * Loads a maze saved with {@link #saveMaze} and installs it as a newly generated maze would be.
+     * A saved seed record is sent to the generating server to generate the same maze again;
+     * a saved maze is decompressed here.
+     *
+     * @param name The name the maze was saved under
+     * @return A future completed with the loaded maze
+     */
+    @Override
+    public CompletableFuture<BitMaze> loadMazeAsync(String name) {
+        byte[] saved;
+        try {
+            saved = Files.readAllBytes(Paths.get("Saved_Mazes", name));
+            if (MazeSeed.isSeedRecord(saved, 0)) {
+                MazeSeed savedSeed = MazeSeed.read(saved, 0);
+                return installMaze(requestMaze(savedSeed.getRows(), savedSeed.getCols(), savedSeed.getSeed(), savedSeed.getAlgorithm(), true), savedSeed);
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return installMaze(CompletableFuture.completedFuture(saved), null);
+    }
+
+    /**
+     * Requests a seeded maze from the generating server, with its solution while solutions are asked for with the maze.
+     *
+     * @param rows          Number of rows in the maze
+     * @param cols          Number of columns in the maze
+     * @param seed          Seed for the generator
+     * @param generatorName Name of the generator, or null for the server's configured one
+     * @param exact         true if only this very maze will do, so the generate strategy cannot stand in
+     * @return A future completed with the response payload
+     */
+    private CompletableFuture<byte[]> requestMaze(int rows, int cols, long seed, String generatorName, boolean exact) {
+        if (useObjectProtocol) {
+            if (exact)
+                return CompletableFuture.failedFuture(new IOException("Generating a saved maze again needs the framed protocol"));
+            return requestFromStrategy(MazeProtocol.STRATEGY_GENERATE_MAZE, new int[]{rows, cols}).thenApply(response -> (byte[]) response);
+        }
+        return requestFromServer(MazeProtocol.GENERATE_SEEDED,
+                MazeProtocol.generateSeededRequest(rows, cols, seed, solveOnGenerate, generatorName, solvingAlgorithm));
+    }
+
+    /**
+     * Decompresses a maze response in the background and installs the maze.
+     * Cancels the generation, solve and speculative solve still pending for the previous maze.
+     *
+     * @param response     The response payload: a compressed maze, optionally preceded by its seed record
+     *                     and followed by its solution
+     * @param expectedSeed The seed record the maze must have been generated from, or null for any maze
+     * @return A future completed with the installed maze
+     */
+    private CompletableFuture<BitMaze> installMaze(CompletableFuture<byte[]> response, MazeSeed expectedSeed) {
+        CompletableFuture<BitMaze> generation = response.thenApplyAsync(payload -> {
+            MazeSeed responseSeed = seedOf(payload);
+            if (expectedSeed != null && (responseSeed == null || !Arrays.equals(responseSeed.toBytes(), expectedSeed.toBytes())))
+                throw new CompletionException(new IOException("The server did not generate the saved maze again"));
+            return decompressMaze(payload, responseSeed == null ? 0 : responseSeed.getEncodedLength());
+        }, executor);
+        cancelling(generation, response);
+        synchronized (this) {
+            cancel(pendingGeneration);
+            cancel(pendingSolve);
+            discardSpeculation();
+            pendingGeneration = generation;
+        }
+        return withErrorLogging(generation.thenApply(newMaze -> {
+            byte[] payload = response.join();
+            MazeSeed responseSeed = seedOf(payload);
+            mazeGenerated(generation, newMaze, includedSolution(payload, responseSeed == null ? 0 : responseSeed.getEncodedLength()), responseSeed);
+            return newMaze;
+        }));
+    }
+
+    /**
+     * Returns the seed record at the start of a maze response.
+     *
+     * @param payload The response payload
+     * @return The seed record, or null if the response starts with the maze
+     */
+    private static MazeSeed seedOf(byte[] payload) {
+        try {
+            return MazeSeed.isSeedRecord(payload, 0) ? MazeSeed.read(payload, 0) : null;
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Returns the solution a generating server sent along with the maze.
+     *
+     * @param payload    The response payload
+     * @param mazeOffset Index where the maze starts
+     * @return The solution, or null if the response holds no solution
+     */
+    private static Solution includedSolution(byte[] payload, int mazeOffset) {
+        try {
+            byte[] encodedSolution = MazeProtocol.readIncludedSolution(payload, mazeOffset);
+            return encodedSolution == null ? null : new CompactSolution(encodedSolution);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Decompresses a maze received from the generating server.
+     * The maze header is read first and the cells are decoded straight into a bit-packed maze.
+     *
+     * @param payload    Bytes holding a maze compressed with MyCompressor
+     * @param mazeOffset Index where the maze starts
+     * @return The decompressed maze
+     */
+    private BitMaze decompressMaze(byte[] payload, int mazeOffset) {
+        try {
+            return MazeDecoder.readBitMaze(new ByteArrayInputStream(payload, mazeOffset, payload.length - mazeOffset));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Installs a newly generated maze, unless a newer generation has replaced it meanwhile.
+     * The solution sent along with the maze, if any, is kept ready; otherwise a speculative solve is started.
+     *
+     * @param generation   The generation that produced the maze
+     * @param newMaze      The generated maze
+     * @param mazeSolution The solution sent along with the maze, or null
+     * @param newMazeSeed  The seed record the maze was generated from, or null if it cannot be generated again
+     */
+    private void mazeGenerated(CompletableFuture<BitMaze> generation, BitMaze newMaze, Solution mazeSolution, MazeSeed newMazeSeed) {
+        synchronized (this) {
+            if (generation != pendingGeneration)
+                return;
+            pendingGeneration = null;
+            bitMaze = newMaze;
+            maze = null;
+            solution = null;
+            junctionGraph = null;
+            distanceField = null;
+            mazeSeed = newMazeSeed;
+            playerRow = bitMaze.getStartPosition().getRowIndex();
+            playerCol = bitMaze.getStartPosition().getColumnIndex();
         }
+        computeDistanceField(newMaze);
+        if (mazeSolution != null)
+            keepSpeculation(newMaze, CompletableFuture.completedFuture(mazeSolution));
+        else
+            speculate(newMaze);
         setChanged();
         notifyObservers("maze generated");
         movePlayer(playerRow,playerCol);
     }
 
     /**
-     * Returns the currently generated maze.
+     * Returns the currently generated maze as a {@link Maze}.
+     * The int[][] based copy is built on first use only.
      *
      * @return Maze object
      */
     @Override
-    public Maze getMaze() {
+    public synchronized Maze getMaze() {
+        if (maze == null && bitMaze != null)
+            maze = bitMaze.toMaze();
         return maze;
     }
 
     /**
-     * Sends the current maze to the solving server (port 5401)
-     * and retrieves the solution.
-     * Notifies observers once the solution is received.
+     * Returns the currently generated maze in its bit-packed form.
+     *
+     * @return BitMaze object
+     */
+    @Override
+    public BitMaze getBitMaze() {
+        return bitMaze;
+    }
+
+    /**
+     * Solves the current maze and waits for the solution.
      */
     @Override
     public void solveMaze() {
         try {
-            Client client = new Client(InetAddress.getLocalHost(), 5401, new
-                    IClientStrategy() {
-                        @Override
-                        public void clientStrategy(InputStream inFromServer, OutputStream outToServer) {
-                            try {
-                                ObjectOutputStream toServer = new ObjectOutputStream(outToServer);
-                                ObjectInputStream fromServer = new ObjectInputStream(inFromServer);
-                                toServer.flush();
-                                toServer.writeObject(maze); //send maze to server
-                                toServer.flush();
-                                Solution mazeSolution = (Solution) fromServer.readObject(); //read generated maze (compressed with MyCompressor) from server
-                                ArrayList<AState> mazeSolutionSteps = mazeSolution.getSolutionPath();
-                                //solution = new Solution(mazeSolutionSteps);
-                                solution = new Solution(mazeSolution.getSolutionPath());
-                            } catch (Exception e) { e.printStackTrace();
-                            }
-                        }
-                    });
-            client.communicateWithServer();
-        } catch (UnknownHostException e) { e.printStackTrace();
-        }
-        //since we have the solve maze server, we will have to ask it to solve it.
+            solveMazeAsync().join();
+        } catch (CancellationException | CompletionException e) { e.printStackTrace();
+        }
+    }
+
+    /**
+     * Sends the current maze to the maze service (to its hosted solve strategy if the object protocol
+     * is selected) in the background.
+     * The framed protocol sends the maze bit-packed, so no int[][] copy of it is built.
+     * If the maze's speculative solve was started, its result is used instead of a new request;
+     * when it has already arrived, observers are notified before this method returns.
+     * Cancels the solve still pending, if any.
+     * Notifies observers once the solution is received.
+     *
+     * @return A future completed with the solution
+     */
+    @Override
+    public CompletableFuture<Solution> solveMazeAsync() {
+        BitMaze mazeToSolve = bitMaze;
+        if (mazeToSolve == null)
+            return CompletableFuture.failedFuture(new IllegalStateException("There is no maze to solve"));
+        CompletableFuture<Solution> solve;
+        synchronized (this) {
+            solve = useSpeculation(mazeToSolve);
+        }
+        if (solve == null)
+            solve = requestSolution(mazeToSolve, executor);
+        CompletableFuture<Solution> installedSolve = solve;
+        synchronized (this) {
+            cancel(pendingSolve);
+            pendingSolve = installedSolve;
+        }
+        return withErrorLogging(installedSolve.thenApply(mazeSolution -> {
+            mazeSolved(installedSolve, mazeToSolve, mazeSolution);
+            return mazeSolution;
+        }));
+    }
+
+    /**
+     * Sends a maze to the solving server, without installing the solution.
+     *
+     * @param mazeToSolve The maze
+     * @param workers     Executor decoding the solution and converting the maze for the solve strategy
+     * @return A future completed with the solution
+     */
+    private CompletableFuture<Solution> requestSolution(BitMaze mazeToSolve, Executor workers) {
+        CompletableFuture<byte[]> encodedSolution;
+        if (useObjectProtocol) {
+            encodedSolution = CompletableFuture.supplyAsync(mazeToSolve::toMaze, workers)
+                    .thenCompose(legacyMaze -> requestFromStrategy(MazeProtocol.STRATEGY_SOLVE_SEARCH_PROBLEM, legacyMaze)
+                            .thenApply(response -> SolutionCodec.encode((Solution) response, legacyMaze)));
+        } else {
+            //send maze to server and read its solution
+            encodedSolution = requestFromServer(MazeProtocol.SOLVE, MazeProtocol.solveRequest(mazeToSolve, solvingAlgorithm));
+        }
+        return cancelling(encodedSolution.thenApplyAsync(CompactSolution::new, workers), encodedSolution);
+    }
+
+    /**
+     * Starts solving a new maze on the solving server right away, since the solution is usually asked for next.
+     * The request and the decoding of its answer run on a low priority thread, and the solution is kept
+     * until {@link #solveMazeAsync()} asks for it or the maze is replaced.
+     *
+     * @param newMaze The maze that was just installed
+     */
+    private void speculate(BitMaze newMaze) {
+        CompletableFuture<CompletableFuture<Solution>> started = CompletableFuture
+                .supplyAsync(() -> {
+                    synchronized (this) {
+                        if (newMaze != bitMaze)
+                            throw new CancellationException("Maze replaced before its speculative solve started");
+                    }
+                    return requestSolution(newMaze, speculationExecutor);
+                }, speculationExecutor);
+        CompletableFuture<Solution> speculation = started.thenCompose(request -> request);
+        speculation.whenComplete((result, error) -> {
+            if (speculation.isCancelled())
+                started.thenAccept(MyModel::cancel); // withdraw the request from the server
+        });
+        withErrorLogging(speculation);
+        keepSpeculation(newMaze, speculation);
+    }
+
+    /**
+     * Keeps a solve of the current maze for {@link #solveMazeAsync()}, replacing the previous one.
+     *
+     * @param newMaze     The maze that was just installed
+     * @param speculation The solve of that maze
+     */
+    private void keepSpeculation(BitMaze newMaze, CompletableFuture<Solution> speculation) {
+        synchronized (this) {
+            if (newMaze != bitMaze) {
+                cancel(speculation);
+                return;
+            }
+            discardSpeculation();
+            speculativeSolve = speculation;
+            speculativeMaze = newMaze;
+            speculationUsed = false;
+        }
+        speculationsStarted.incrementAndGet();
+    }
+
+    /**
+     * Returns the speculative solve of a maze for a solve request, counting its first use.
+     * The returned future depends on the speculation, so cancelling it leaves the speculation running,
+     * and if the speculation fails a regular request is sent instead.
+     * Must be called while holding the model's lock.
+     *
+     * @param mazeToSolve The maze to solve
+     * @return A future completed with the solution, or null if the maze has no speculative solve
+     */
+    private CompletableFuture<Solution> useSpeculation(BitMaze mazeToSolve) {
+        if (speculativeSolve == null || speculativeMaze != mazeToSolve)
+            return null;
+        if (!speculationUsed) {
+            speculationUsed = true;
+            speculationsUsed.incrementAndGet();
+        }
+        return speculativeSolve.exceptionallyCompose(error -> requestSolution(mazeToSolve, executor));
+    }
+
+    /**
+     * Cancels the current maze's speculative solve, counting it as wasted if its solution was never asked for.
+     * Must be called while holding the model's lock.
+     */
+    private void discardSpeculation() {
+        if (speculativeSolve == null)
+            return;
+        if (!speculationUsed)
+            speculationsWasted.incrementAndGet();
+        cancel(speculativeSolve);
+        speculativeSolve = null;
+        speculativeMaze = null;
+    }
+
+    /**
+     * Returns the number of speculative solves started, one for each generated maze.
+     *
+     * @return Number of speculative solves
+     */
+    public long getSpeculationsStarted() {
+        return speculationsStarted.get();
+    }
+
+    /**
+     * Returns the number of speculative solves whose solution was asked for.
+     *
+     * @return Number of used speculative solves
+     */
+    public long getSpeculationsUsed() {
+        return speculationsUsed.get();
+    }
+
+    /**
+     * Returns the number of speculative solves discarded with their maze before the solution was asked for.
+     *
+     * @return Number of wasted speculative solves
+     */
+    public long getSpeculationsWasted() {
+        return speculationsWasted.get();
+    }
+
+    /**
+     * Solves the current maze from the player's position to the goal on this side, without the server.
+     * The maze's junction graph is built by the first such solve and reused by the later ones,
+     * which then search only the junctions of the maze.
+     * Cancels the solve still pending, if any.
+     * Notifies observers once the solution is in place.
+     *
+     * @return A future completed with the solution from the player's position
+     */
+    @Override
+    public CompletableFuture<Solution> solveFromPlayerAsync() {
+        BitMaze mazeToSolve = bitMaze;
+        if (mazeToSolve == null)
+            return CompletableFuture.failedFuture(new IllegalStateException("There is no maze to solve"));
+        Position from = new Position(playerRow, playerCol);
+        CompletableFuture<Solution> solve = CompletableFuture.supplyAsync(
+                () -> junctionGraphOf(mazeToSolve).solve(from, mazeToSolve.getGoalPosition()), executor);
+        synchronized (this) {
+            cancel(pendingSolve);
+            pendingSolve = solve;
+        }
+        return withErrorLogging(solve.thenApply(mazeSolution -> {
+            mazeSolved(solve, mazeToSolve, mazeSolution);
+            return mazeSolution;
+        }));
+    }
+
+    /**
+     * Computes the distance field of a new maze in the background, once per maze.
+     * The field is installed only if the maze is still the current one.
+     *
+     * @param fieldMaze The maze
+     */
+    private void computeDistanceField(BitMaze fieldMaze) {
+        withErrorLogging(CompletableFuture.supplyAsync(() -> DistanceField.of(MazeGrid.of(fieldMaze)), executor)
+                .thenAccept(field -> {
+                    synchronized (this) {
+                        if (fieldMaze == bitMaze)
+                            distanceField = field;
+                    }
+                }));
+    }
+
+    /**
+     * Returns the next step on a shortest path from the player's position to the goal.
+     * Looks the step up in the maze's distance field, so it costs the same after any move.
+     *
+     * @return The direction, or null at the goal, if the goal cannot be reached or while the field is still being computed
+     */
+    @Override
+    public MovementDirection getHint() {
+        DistanceField field;
+        synchronized (this) {
+            field = distanceField;
+        }
+        if (field == null)
+            return null;
+        int step = field.getNextStep(playerRow, playerCol);
+        return step < 0 ? null : MovementDirection.values()[step];
+    }
+
+    /**
+     * Returns a shortest path from the player's position to the goal, following the maze's distance field.
+     * Costs the length of the path; nothing is searched and the server is not asked.
+     *
+     * @return The solution from the player's position, or null while the field is still being computed
+     */
+    @Override
+    public Solution getSolutionFromPlayer() {
+        DistanceField field;
+        synchronized (this) {
+            field = distanceField;
+        }
+        return field == null ? null : field.solutionFrom(playerRow, playerCol);
+    }
+
+    /**
+     * Returns the junction graph of a maze, building it outside the lock if it is not cached yet.
+     * The graph is kept only if the maze is still the current one.
+     *
+     * @param graphMaze The maze
+     * @return Its junction graph
+     */
+    private JunctionGraph junctionGraphOf(BitMaze graphMaze) {
+        synchronized (this) {
+            if (graphMaze == bitMaze && junctionGraph != null)
+                return junctionGraph;
+        }
+        JunctionGraph graph = JunctionGraph.of(MazeGrid.of(graphMaze));
+        synchronized (this) {
+            if (graphMaze == bitMaze)
+                junctionGraph = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Installs a solution, unless the maze or the solve request was replaced meanwhile.
+     *
+     * @param solve        The solve request that produced the solution
+     * @param solvedMaze   The maze that was solved
+     * @param mazeSolution The solution
+     */
+    private void mazeSolved(CompletableFuture<Solution> solve, BitMaze solvedMaze, Solution mazeSolution) {
+        synchronized (this) {
+            if (solve != pendingSolve || solvedMaze != bitMaze)
+                return;
+            pendingSolve = null;
+            solution = mazeSolution;
+        }
         setChanged();
         notifyObservers("maze solved");
     }
 
+    /**
+     * Cancels a pending request, if any.
+     *
+     * @param pending The request to cancel (may be null)
+     */
+    private static void cancel(CompletableFuture<?> pending) {
+        if (pending != null)
+            pending.cancel(true);
+    }
+
+    /**
+     * Prints failures of a background request. Cancellations are expected and not printed.
+     *
+     * @param request The background request
+     * @return The same request
+     */
+    private static <T> CompletableFuture<T> withErrorLogging(CompletableFuture<T> request) {
+        request.whenComplete((result, error) -> {
+            if (error != null && !(error instanceof CancellationException) && !(error.getCause() instanceof CancellationException))
+                error.printStackTrace();
+        });
+        return request;
+    }
+
+    /**
+     * Selects the maze generator the server uses for this model's mazes.
+     * Only the framed protocol carries the choice; the hosted one-shot strategies always use their own.
+     *
+     * @param algorithm Name of a generator registered on the server, or null for the server's configured one
+     */
+    public void setGeneratingAlgorithm(String algorithm) {
+        generatingAlgorithm = algorithm;
+    }
+
+    /**
+     * Selects the searching algorithm the server uses to solve this model's mazes.
+     * Only the framed protocol carries the choice; the hosted one-shot strategies always use their own.
+     *
+     * @param algorithm Name of a searching algorithm registered on the server, or null for the server's configured one
+     */
+    public void setSolvingAlgorithm(String algorithm) {
+        solvingAlgorithm = algorithm;
+    }
+
+    /**
+     * Selects whether new mazes are generated and solved in one request to the generating server.
+     * On by default; the default can also be set with the {@code maze.solveOnGenerate} system property.
+     * When off, or when the object protocol is selected, the maze is solved with a separate speculative request.
+     *
+     * @param withSolution true to ask for each new maze's solution along with it
+     */
+    public static void setSolveOnGenerate(boolean withSolution) {
+        solveOnGenerate = withSolution;
+    }
+
+    /**
+     * Selects the requests sent to the maze service. By default the model sends framed binary requests;
+     * with the object protocol selected it sends serialized objects to the one-shot strategies the service hosts,
+     * as it used to send them to ports of their own. The default can also be set with the
+     * {@code maze.objectProtocol} system property.
+     *
+     * @param objectProtocol true to use the object protocol
+     */
+    public static void setUseObjectProtocol(boolean objectProtocol) {
+        useObjectProtocol = objectProtocol;
+    }
+
+    /**
+     * Sends a framed request to the maze service over the persistent connection pool, with the time limit of
+     * the system property {@code maze.requestTimeoutMillis} (60 seconds by default, 0 for none).
+     * Cancelling the returned future cancels the request on the server.
+     *
+     * @param type    Request type, one of the {@link MazeProtocol} type constants
+     * @param payload The request body
+     * @return A future completed with the payload of the server's response
+     */
+    private CompletableFuture<byte[]> requestFromServer(byte type, byte[] payload) {
+        CompletableFuture<MazeFrame> sent = servicePool.request(type, payload, requestTimeoutMillis);
+        return cancelling(sent.thenApply(MazeFrame::getPayload), sent);
+    }
+
+    /**
+     * Sends a request object to a one-shot strategy hosted by the maze service, the way it used to be sent
+     * to the strategy's own port, and reads the object the strategy answers with.
+     *
+     * @param type    Request type the strategy is hosted under
+     * @param request The request object
+     * @return A future completed with the strategy's answer
+     */
+    private CompletableFuture<Object> requestFromStrategy(byte type, Object request) {
+        byte[] payload;
+        try {
+            payload = MazeProtocol.objectPayload(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<byte[]> response = requestFromServer(type, payload);
+        return cancelling(response.thenApply(answer -> {
+            try {
+                return MazeProtocol.readObject(answer);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }), response);
+    }
+
+    /**
+     * Makes cancelling a future derived from a request cancel the request itself,
+     * which CompletableFuture does not do on its own.
+     *
+     * @param derived The derived future
+     * @param source  The request it was derived from
+     * @return The derived future
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> derived, CompletableFuture<?> source) {
+        derived.whenComplete((result, error) -> {
+            if (derived.isCancelled())
+                source.cancel(true);
+        });
+        return derived;
+    }
+
     /**
      * Returns the solution for the current maze.
      *
@@ -171,22 +749,21 @@ public class MyModel extends Observable implements IModel{
      */
     @Override
     public void updatePlayerLocation(MovementDirection direction) {
-        int[][] mazeBody = maze.getMazeArray();
         switch (direction){
             case UP -> {
-                if (playerRow > 0 && (mazeBody[playerRow - 1][playerCol]  == 0))
+                if (bitMaze.isPath(playerRow - 1, playerCol))
                     movePlayer(playerRow - 1, playerCol);
             }
             case DOWN -> {
-                if (playerRow < mazeBody.length - 1 && (mazeBody[playerRow + 1][playerCol]  == 0) )
+                if (bitMaze.isPath(playerRow + 1, playerCol))
                     movePlayer(playerRow + 1, playerCol);
             }
             case LEFT -> {
-                if (playerCol > 0 && (mazeBody[playerRow][playerCol- 1]  == 0))
+                if (bitMaze.isPath(playerRow, playerCol - 1))
                     movePlayer(playerRow, playerCol - 1);
             }
             case RIGHT -> {
-                if (playerCol < mazeBody[0].length - 1 && (mazeBody[playerRow ][playerCol + 1]  == 0))
+                if (bitMaze.isPath(playerRow, playerCol + 1))
                     movePlayer(playerRow, playerCol + 1);
             }
         }
@@ -206,39 +783,33 @@ public class MyModel extends Observable implements IModel{
     }
 
     /**
-     * Saves the current maze to a file using compression.
+     * Saves the current maze to a file. A maze generated from a seed is saved as its seed record,
+     * a few bytes from which {@link #loadMazeAsync} has the server generate it again;
+     * any other maze is saved compressed.
      *
      * @param name The name of the file to save the maze under
      */
     public void saveMaze(String name){
+        BitMaze mazeToSave;
+        MazeSeed seedToSave;
+        synchronized (this) {
+            mazeToSave = bitMaze;
+            seedToSave = mazeSeed;
+        }
         try {
             File theDir = new File("Saved_Mazes");
             if (!theDir.exists()) {
                 theDir.mkdirs();
             }
-            byte[] list = maze.toByteArray();
             String filename = "Saved_Mazes/" + name;
-            OutputStream out = new MyCompressorOutputStream(new FileOutputStream("tempMaze.maze"));
-            out.write(list);
-            out.flush();
-            Path p = Paths.get("tempMaze.maze");
-            byte[] compressedList = Files.readAllBytes(p);
-
-            FileOutputStream fos = new FileOutputStream(filename);
-
-            try {
-                fos.write(compressedList);
-            } catch (Throwable var13) {
-                try {
-                    fos.close();
-                } catch (Throwable var12) {
-                    var13.addSuppressed(var12);
-                }
-                throw var13;
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+                if (seedToSave != null)
+                    out.write(seedToSave.toBytes());
+                else
+                    MazeEncoder.writeBitMaze(mazeToSave, out); //same format MyCompressorOutputStream writes
             }
-            fos.close();
-        } catch (IOException var14) {
-            var14.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
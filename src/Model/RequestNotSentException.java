@@ -0,0 +1,20 @@
+package Model;
+
+import java.io.IOException;
+
+/**
+ * Thrown when writing a request to an open connection fails, typically because the server closed
+ * the connection while it was idle. The request never reached the server, so it may be sent again.
+ */
+public class RequestNotSentException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param cause The write failure
+     */
+    public RequestNotSentException(IOException cause) {
+        super("Request could not be sent: " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,20 @@
+package Model;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a server answers a request with {@link IO.MazeProtocol#OVERLOADED}: it had no room for the
+ * request right now, so sending it elsewhere or again later may succeed.
+ */
+public class ServerBusyException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message The server's reason
+     */
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
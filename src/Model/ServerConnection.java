@@ -0,0 +1,215 @@
+package Model;
+
+import IO.MazeFrame;
+import IO.MazeProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-lived connection to a multiplexed server, speaking the framed maze protocol.
+ * Many requests can be in flight at once; each one carries an ID and its response
+ * completes the matching future when it arrives.
+ * A request that is given up on before its response arrives, because its future was cancelled or its
+ * time limit passed, is cancelled on the server too.
+ * Connecting and the preamble exchange give up after the time set with the system property
+ * {@code maze.connectTimeoutMillis} (5 seconds by default), so a server that accepts but never serves
+ * the connection does not block the caller forever.
+ */
+public class ServerConnection implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = Integer.getInteger("maze.connectTimeoutMillis", 5000);
+    private final Socket socket;
+    private final DataOutputStream toServer;
+    private final DataInputStream fromServer;
+    private final Map<Long, CompletableFuture<MazeFrame>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private volatile boolean open = true;
+
+    /**
+     * Opens the connection, exchanges the protocol preamble and starts the thread that reads responses.
+     *
+     * @param serverIP   Address of the server
+     * @param serverPort Port of the server
+     * @throws IOException If the connection could not be opened in time or the server does not speak the protocol
+     */
+    public ServerConnection(InetAddress serverIP, int serverPort) throws IOException {
+        socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(serverIP, serverPort), CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS); // for the preamble only
+            toServer = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            MazeProtocol.writePreamble(toServer);
+            toServer.flush();
+            fromServer = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            MazeProtocol.readPreamble(fromServer);
+            socket.setSoTimeout(0); // responses may take as long as their requests' time limits
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        Thread reader = new Thread(this::readResponses, "server-connection-" + serverPort);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Sends a request over this connection, without a time limit.
+     *
+     * @param type    Request type, one of the {@link MazeProtocol} type constants
+     * @param payload Request body
+     * @return A future completed with the server's response frame, or exceptionally if the request failed
+     */
+    public CompletableFuture<MazeFrame> send(byte type, byte[] payload) {
+        return send(type, payload, 0);
+    }
+
+    /**
+     * Sends a request over this connection.
+     * With a time limit, the request carries it as a {@link MazeProtocol#DEADLINE}, so the server drops
+     * the request when it passes, and the future fails with a TimeoutException then.
+     *
+     * @param type          Request type, one of the {@link MazeProtocol} type constants
+     * @param payload       Request body
+     * @param timeoutMillis Time limit in milliseconds, or 0 for none
+     * @return A future completed with the server's response frame, or exceptionally if the request failed;
+     * with a {@link RequestNotSentException} if it could not be written
+     */
+    public CompletableFuture<MazeFrame> send(byte type, byte[] payload, int timeoutMillis) {
+        CompletableFuture<MazeFrame> response = new CompletableFuture<>();
+        long requestId = nextRequestId.incrementAndGet();
+        pending.put(requestId, response);
+        if (!open) {
+            pending.remove(requestId);
+            response.completeExceptionally(new IOException("Connection is closed"));
+            return response;
+        }
+        MazeFrame request = timeoutMillis > 0
+                ? new MazeFrame(MazeProtocol.DEADLINE, requestId, MazeProtocol.withDeadline(timeoutMillis, type, payload))
+                : new MazeFrame(type, requestId, payload);
+        try {
+            writeFrame(request);
+        } catch (IOException e) {
+            pending.remove(requestId, response);
+            response.completeExceptionally(new RequestNotSentException(e));
+            close(e);
+            return response;
+        }
+        if (timeoutMillis > 0)
+            response.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        response.whenComplete((frame, error) -> {
+            if (pending.remove(requestId, response)) // given up on before the server answered
+                write(new MazeFrame(MazeProtocol.CANCEL, requestId, new byte[0]));
+        });
+        return response;
+    }
+
+    /**
+     * Writes a frame to the server, closing the connection if that fails.
+     *
+     * @param frame The frame
+     * @return true if the frame was written
+     */
+    private boolean write(MazeFrame frame) {
+        if (!open)
+            return false;
+        try {
+            writeFrame(frame);
+            return true;
+        } catch (IOException e) {
+            close(e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes a frame to the server.
+     *
+     * @param frame The frame
+     * @throws IOException If the connection is broken
+     */
+    private void writeFrame(MazeFrame frame) throws IOException {
+        synchronized (toServer) {
+            frame.write(toServer);
+            toServer.flush();
+        }
+    }
+
+    /**
+     * Reads responses until the connection breaks and completes the matching futures.
+     */
+    private void readResponses() {
+        try {
+            while (open) {
+                MazeFrame frame = MazeFrame.read(fromServer);
+                CompletableFuture<MazeFrame> response = pending.remove(frame.getRequestId());
+                if (response == null)
+                    continue;
+                if (frame.getType() == MazeProtocol.ERROR)
+                    response.completeExceptionally(new IOException("Server error: " + MazeProtocol.readErrorMessage(frame.getPayload())));
+                else if (frame.getType() == MazeProtocol.OVERLOADED)
+                    response.completeExceptionally(new ServerBusyException(MazeProtocol.readErrorMessage(frame.getPayload())));
+                else
+                    response.complete(frame);
+            }
+        } catch (Exception e) {
+            close(e);
+        }
+    }
+
+    /**
+     * Returns whether the connection can still be used.
+     *
+     * @return true if the connection is open
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Returns the number of requests waiting for a response.
+     *
+     * @return Number of pending requests
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Closes the connection. Pending requests fail.
+     */
+    @Override
+    public void close() {
+        close(new IOException("Connection closed"));
+    }
+
+    /**
+     * Closes the connection and fails every pending request with the given cause.
+     *
+     * @param cause The reason the connection is closed
+     */
+    private void close(Throwable cause) {
+        open = false;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        for (Long requestId : pending.keySet()) {
+            CompletableFuture<MazeFrame> response = pending.remove(requestId);
+            if (response != null)
+                response.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package Model;
+
+import IO.MazeFrame;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A small pool of persistent connections to one server.
+ * Requests go to the least busy connection; connections that broke are reopened on the next request.
+ */
+public class ServerConnectionPool {
+    private final InetAddress serverIP;
+    private final int serverPort;
+    private final ServerConnection[] connections;
+    private final boolean[] opening;
+
+    /**
+     * Constructs a pool. Connections are opened lazily, on the first requests.
+     *
+     * @param serverIP   Address of the server
+     * @param serverPort Port of the server
+     * @param size       Maximum number of connections to keep open
+     */
+    public ServerConnectionPool(InetAddress serverIP, int serverPort, int size) {
+        this.serverIP = serverIP;
+        this.serverPort = serverPort;
+        this.connections = new ServerConnection[size];
+        this.opening = new boolean[size];
+    }
+
+    /**
+     * Sends a request to the server.
+     * If the request cannot be written because the chosen connection turned out to be broken,
+     * it is sent once more on another connection.
+     *
+     * @param type    Request type, one of the {@link IO.MazeProtocol} type constants
+     * @param payload Request body
+     * @return A future completed with the server's response frame
+     */
+    public CompletableFuture<MazeFrame> request(byte type, byte[] payload) {
+        return request(type, payload, 0);
+    }
+
+    /**
+     * Sends a request to the server with a time limit, after which the server drops it and the future fails.
+     * If the request cannot be written because the chosen connection turned out to be broken,
+     * it is sent once more on another connection.
+     *
+     * @param type          Request type, one of the {@link IO.MazeProtocol} type constants
+     * @param payload       Request body
+     * @param timeoutMillis Time limit in milliseconds, or 0 for none
+     * @return A future completed with the server's response frame
+     */
+    public CompletableFuture<MazeFrame> request(byte type, byte[] payload, int timeoutMillis) {
+        try {
+            CompletableFuture<MazeFrame> response = acquire().send(type, payload, timeoutMillis);
+            if (notSent(response))
+                response = acquire().send(type, payload, timeoutMillis);
+            return response;
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Tells whether a request failed because it could not be written to its connection.
+     * Requests the server answered with an error, or that it turned away, are not sent again.
+     *
+     * @param response The request's future
+     * @return true if the request never reached the server
+     */
+    private static boolean notSent(CompletableFuture<MazeFrame> response) {
+        if (!response.isCompletedExceptionally())
+            return false;
+        try {
+            response.join();
+            return false;
+        } catch (CompletionException | CancellationException e) {
+            return e.getCause() instanceof RequestNotSentException;
+        }
+    }
+
+    /**
+     * Picks the connection for the next request: an idle open connection if there is one,
+     * otherwise a newly opened one while the pool is not full, otherwise the least busy one.
+     * A new connection is opened without holding the pool's lock, so requests that can use an open
+     * connection are not held up by a server that is slow to accept.
+     *
+     * @return An open connection
+     * @throws IOException If no connection is open and a new one could not be opened
+     */
+    private ServerConnection acquire() throws IOException {
+        int slot;
+        synchronized (this) {
+            while (true) {
+                ServerConnection leastBusy = leastBusy();
+                if (leastBusy != null && leastBusy.pendingCount() == 0)
+                    return leastBusy;
+                slot = freeSlot();
+                if (slot >= 0)
+                    break;
+                if (leastBusy != null)
+                    return leastBusy;
+                try {
+                    wait(); // every slot is being opened
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a connection");
+                }
+            }
+            opening[slot] = true;
+        }
+        ServerConnection connection = null;
+        try {
+            connection = new ServerConnection(serverIP, serverPort);
+            return connection;
+        } catch (IOException e) {
+            synchronized (this) {
+                ServerConnection leastBusy = leastBusy();
+                if (leastBusy == null)
+                    throw e;
+                return leastBusy;
+            }
+        } finally {
+            synchronized (this) {
+                opening[slot] = false;
+                if (connection != null)
+                    connections[slot] = connection;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the open connection with the fewest pending requests. Must be called while holding the pool's lock.
+     *
+     * @return The least busy open connection, or null if none is open
+     */
+    private ServerConnection leastBusy() {
+        ServerConnection leastBusy = null;
+        for (ServerConnection connection : connections) {
+            if (connection != null && connection.isOpen()
+                    && (leastBusy == null || connection.pendingCount() < leastBusy.pendingCount()))
+                leastBusy = connection;
+        }
+        return leastBusy;
+    }
+
+    /**
+     * Returns a slot without an open connection that is not being opened. Must be called while holding the pool's lock.
+     *
+     * @return The slot's index, or -1 if there is none
+     */
+    private int freeSlot() {
+        for (int i = 0; i < connections.length; i++) {
+            if (!opening[i] && (connections[i] == null || !connections[i].isOpen()))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes every connection of the pool.
+     */
+    public synchronized void close() {
+        for (int i = 0; i < connections.length; i++) {
+            if (connections[i] != null) {
+                connections[i].close();
+                connections[i] = null;
+            }
+        }
+    }
+}
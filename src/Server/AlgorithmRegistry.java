@@ -0,0 +1,219 @@
+package Server;
+
+import algorithms.mazeGenerators.EllerMazeGenerator;
+import algorithms.mazeGenerators.EmptyMazeGenerator;
+import algorithms.mazeGenerators.IMazeGenerator;
+import algorithms.mazeGenerators.MyMazeGenerator;
+import algorithms.mazeGenerators.SimpleMazeGenerator;
+import algorithms.search.AStarSearch;
+import algorithms.search.BestFirstSearch;
+import algorithms.search.BidirectionalBreadthFirstSearch;
+import algorithms.search.BreadthFirstSearch;
+import algorithms.search.DepthFirstSearch;
+import algorithms.search.ISearchingAlgorithm;
+import algorithms.search.JumpPointSearch;
+import algorithms.search.ParallelBreadthFirstSearch;
+import algorithms.search.PrimitiveBreadthFirstSearch;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maze generators and searching algorithms by name, the names used in config.properties
+ * (mazeGeneratingAlgorithm and mazeSearchingAlgorithm).
+ * <p>
+ * The configured names come from the current {@link ServerConfiguration} snapshot, so a lookup never reads
+ * the file and a watched file's changes apply to the next request.
+ */
+public class AlgorithmRegistry {
+    private static final Map<String, Supplier<ISearchingAlgorithm>> solvers = new ConcurrentHashMap<>();
+    private static final Map<String, Double> solverBytesPerCell = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<IMazeGenerator>> generators = new ConcurrentHashMap<>();
+    private static final Map<String, LongFunction<IMazeGenerator>> seededGenerators = new ConcurrentHashMap<>();
+
+    static {
+        // memory per cell measured as the largest open square maze each solver handles in a 256 MB heap, rounded up
+        registerSolver("BreadthFirstSearch", BreadthFirstSearch::new, MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+        registerSolver("DepthFirstSearch", DepthFirstSearch::new, MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+        registerSolver("BestFirstSearch", BestFirstSearch::new, MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+        registerSolver("AStarSearch", AStarSearch::new, 14);
+        registerSolver("PrimitiveBreadthFirstSearch", PrimitiveBreadthFirstSearch::new, 8);
+        registerSolver("BidirectionalBreadthFirstSearch", BidirectionalBreadthFirstSearch::new, 8);
+        registerSolver("ParallelBreadthFirstSearch", ParallelBreadthFirstSearch::new, 8);
+        registerSolver("JumpPointSearch", JumpPointSearch::new, 16);
+        registerGenerator("MyMazeGenerator", MyMazeGenerator::new);
+        registerGenerator("SimpleMazeGenerator", SimpleMazeGenerator::new);
+        registerGenerator("EmptyMazeGenerator", EmptyMazeGenerator::new);
+        registerGenerator("EllerMazeGenerator", EllerMazeGenerator::new);
+        registerSeededGenerator("EllerMazeGenerator", EllerMazeGenerator::new);
+    }
+
+    /**
+     * Registers a searching algorithm, replacing any algorithm registered under the same name.
+     * Its memory need is taken to be {@link MazeSizeLimits#SOLVE_BYTES_PER_CELL}, that of a search building
+     * an object per state.
+     *
+     * @param name    Name used in the configuration and in requests
+     * @param factory Creates a new instance of the algorithm for each solve
+     */
+    public static void registerSolver(String name, Supplier<ISearchingAlgorithm> factory) {
+        registerSolver(name, factory, MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+    }
+
+    /**
+     * Registers a searching algorithm, replacing any algorithm registered under the same name.
+     *
+     * @param name         Name used in the configuration and in requests
+     * @param factory      Creates a new instance of the algorithm for each solve
+     * @param bytesPerCell Memory a solve takes per maze cell, the decoded maze included
+     */
+    public static void registerSolver(String name, Supplier<ISearchingAlgorithm> factory, double bytesPerCell) {
+        solverBytesPerCell.put(name, bytesPerCell);
+        solvers.put(name, factory);
+    }
+
+    /**
+     * Registers a maze generator, replacing any generator registered under the same name.
+     *
+     * @param name    Name used in the configuration and in requests
+     * @param factory Creates a new instance of the generator for each maze
+     */
+    public static void registerGenerator(String name, Supplier<IMazeGenerator> factory) {
+        generators.put(name, factory);
+    }
+
+    /**
+     * Registers a maze generator that can be seeded, so that a name, a size and a seed always give the same maze.
+     * The generator should also be registered with {@link #registerGenerator} for unseeded requests.
+     *
+     * @param name    Name used in the configuration and in requests
+     * @param factory Creates a new instance of the generator for a seed
+     */
+    public static void registerSeededGenerator(String name, LongFunction<IMazeGenerator> factory) {
+        seededGenerators.put(name, factory);
+    }
+
+    /**
+     * Creates a searching algorithm.
+     *
+     * @param name Registered name, or null for the configured algorithm
+     * @return A new instance of the algorithm
+     * @throws IllegalArgumentException If no algorithm is registered under the name
+     */
+    public static ISearchingAlgorithm createSolver(String name) {
+        String solverName = name != null ? name : getConfiguredSolver();
+        Supplier<ISearchingAlgorithm> factory = solvers.get(solverName);
+        if (factory == null)
+            throw new IllegalArgumentException("Unknown searching algorithm: " + solverName);
+        return factory.get();
+    }
+
+    /**
+     * Returns the memory a searching algorithm takes per maze cell, for {@link MazeSizeLimits#check}.
+     *
+     * @param name Registered name, or null for the configured algorithm
+     * @return Bytes per cell, {@link MazeSizeLimits#SOLVE_BYTES_PER_CELL} if no algorithm is registered under the name
+     */
+    public static double getSolverBytesPerCell(String name) {
+        return solverBytesPerCell.getOrDefault(name != null ? name : getConfiguredSolver(), MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+    }
+
+    /**
+     * Returns the memory per maze cell of the registered searching algorithm that needs the least.
+     *
+     * @return Bytes per cell
+     */
+    public static double getLightestSolverBytesPerCell() {
+        return solverBytesPerCell.values().stream().mapToDouble(Double::doubleValue).min().orElse(MazeSizeLimits.SOLVE_BYTES_PER_CELL);
+    }
+
+    /**
+     * Creates a maze generator.
+     *
+     * @param name Registered name, or null for the configured generator
+     * @return A new instance of the generator
+     * @throws IllegalArgumentException If no generator is registered under the name
+     */
+    public static IMazeGenerator createGenerator(String name) {
+        String generatorName = name != null ? name : getConfiguredGenerator();
+        Supplier<IMazeGenerator> factory = generators.get(generatorName);
+        if (factory == null)
+            throw new IllegalArgumentException("Unknown maze generator: " + generatorName);
+        return factory.get();
+    }
+
+    /**
+     * Creates a seeded maze generator.
+     *
+     * @param name Registered name, or null for the configured generator
+     * @param seed The seed
+     * @return A new instance of the generator that produces the same maze for the same size and seed
+     * @throws IllegalArgumentException If no seeded generator is registered under the name
+     */
+    public static IMazeGenerator createGenerator(String name, long seed) {
+        String generatorName = name != null ? name : getConfiguredGenerator();
+        LongFunction<IMazeGenerator> factory = seededGenerators.get(generatorName);
+        if (factory == null)
+            throw new IllegalArgumentException("Maze generator cannot be seeded: " + generatorName);
+        return factory.apply(seed);
+    }
+
+    /**
+     * Checks whether a maze generator can be seeded.
+     *
+     * @param name Registered name, or null for the configured generator
+     * @return true if {@link #createGenerator(String, long)} accepts the name
+     */
+    public static boolean isSeededGenerator(String name) {
+        return seededGenerators.containsKey(name != null ? name : getConfiguredGenerator());
+    }
+
+    /**
+     * Returns the searching algorithm named in the current configuration.
+     * Falls back to BreadthFirstSearch if the configuration names none.
+     *
+     * @return The configured algorithm name
+     */
+    public static String getConfiguredSolver() {
+        return ServerConfiguration.current().getSearchingAlgorithm();
+    }
+
+    /**
+     * Returns the maze generator named in the current configuration.
+     * Falls back to MyMazeGenerator if the configuration names none.
+     *
+     * @return The configured generator name
+     */
+    public static String getConfiguredGenerator() {
+        return ServerConfiguration.current().getGeneratingAlgorithm();
+    }
+
+    /**
+     * Reads the configuration file again, for when it is not watched.
+     */
+    public static void reloadConfiguration() {
+        ServerConfiguration.reload();
+    }
+
+    /**
+     * Returns the names of the registered searching algorithms.
+     *
+     * @return Sorted names
+     */
+    public static Set<String> getSolverNames() {
+        return new TreeSet<>(solvers.keySet());
+    }
+
+    /**
+     * Returns the names of the registered maze generators.
+     *
+     * @return Sorted names
+     */
+    public static Set<String> getGeneratorNames() {
+        return new TreeSet<>(generators.keySet());
+    }
+}
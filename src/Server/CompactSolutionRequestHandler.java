@@ -0,0 +1,73 @@
+package Server;
+
+import IO.MazeEncoder;
+import IO.MazeProtocol;
+import IO.SolutionCodec;
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.Solution;
+
+/**
+ * Answers solve requests with the compact solution encoding of {@link SolutionCodec}
+ * instead of a serialized {@link Solution}.
+ */
+public class CompactSolutionRequestHandler implements IRequestHandler {
+    private final IRequestHandler solver;
+    private final SolutionCache solutionCache;
+
+    /**
+     * Constructs the handler.
+     *
+     * @param solver Handler that turns a Maze or {@link SolveRequest} into a Solution
+     */
+    public CompactSolutionRequestHandler(IRequestHandler solver) {
+        this(solver, null);
+    }
+
+    /**
+     * Constructs the handler.
+     *
+     * @param solver        Handler that turns a Maze or {@link SolveRequest} into a Solution
+     * @param solutionCache Cache consulted before solving, or null to always solve
+     */
+    public CompactSolutionRequestHandler(IRequestHandler solver, SolutionCache solutionCache) {
+        this.solver = solver;
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * Solves the maze with the underlying handler and encodes the solution.
+     *
+     * @param request The Maze to solve, or a {@link SolveRequest}
+     * @return The encoded solution as a byte[]
+     * @throws Exception If the maze could not be solved
+     */
+    @Override
+    public Object handle(Object request) throws Exception {
+        Maze maze;
+        String algorithm = null;
+        if (request instanceof SolveRequest) {
+            maze = ((SolveRequest) request).getMaze();
+            algorithm = ((SolveRequest) request).getAlgorithm();
+        } else {
+            maze = (Maze) request;
+        }
+        if (solutionCache == null)
+            return solve(request, maze);
+        // same key as the framed SOLVE payload for this maze and algorithm
+        byte[] cacheKey = MazeProtocol.withAlgorithm(MazeEncoder.toBytes(maze), algorithm);
+        return solutionCache.getOrSolve(cacheKey, () -> solve(request, maze));
+    }
+
+    /**
+     * Solves the maze with the underlying handler and encodes the solution.
+     *
+     * @param request The request, passed on to the underlying handler
+     * @param maze    The maze to solve
+     * @return The encoded solution
+     * @throws Exception If the maze could not be solved
+     */
+    private byte[] solve(Object request, Maze maze) throws Exception {
+        Solution solution = (Solution) solver.handle(request);
+        return SolutionCodec.encode(solution, maze);
+    }
+}
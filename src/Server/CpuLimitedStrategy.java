@@ -0,0 +1,70 @@
+package Server;
+
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Wraps a one-shot object strategy so that its computation holds one of a limited number of permits,
+ * while reading the request and writing the response do not.
+ * The request is read from the client first, the wrapped strategy then runs against in-memory streams
+ * (see {@link StrategyRequestHandler}) while holding a permit, and the response is written afterwards.
+ * With one thread per connection, any number of clients can be sending or receiving while at most
+ * as many mazes as there are permits are generated or solved at a time.
+ */
+public class CpuLimitedStrategy implements IServerStrategy {
+    private static final Semaphore CPU_PERMITS = new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+    private final StrategyRequestHandler strategy;
+    private final Semaphore permits;
+
+    /**
+     * Constructs a wrapper sharing one permit per available processor with the other wrappers constructed this way.
+     *
+     * @param strategy The one-shot strategy to run per connection
+     */
+    public CpuLimitedStrategy(IServerStrategy strategy) {
+        this(strategy, CPU_PERMITS);
+    }
+
+    /**
+     * Constructs a wrapper.
+     *
+     * @param strategy The one-shot strategy to run per connection
+     * @param permits  Permits one of which is held while the strategy runs
+     */
+    public CpuLimitedStrategy(IServerStrategy strategy, Semaphore permits) {
+        this.strategy = new StrategyRequestHandler(strategy);
+        this.permits = permits;
+    }
+
+    /**
+     * Reads the client's request, runs the wrapped strategy on it while holding a permit and writes its answer.
+     *
+     * @param inFromClient Stream of the request from the client
+     * @param outToClient  Stream of the response to the client
+     */
+    @Override
+    public void serverStrategy(InputStream inFromClient, OutputStream outToClient) {
+        try {
+            ObjectOutputStream toClient = new ObjectOutputStream(outToClient);
+            toClient.flush();
+            ObjectInputStream fromClient = new ObjectInputStream(inFromClient);
+            Object request = fromClient.readObject();
+            Object response;
+            permits.acquire();
+            try {
+                response = strategy.handle(request);
+            } finally {
+                permits.release();
+            }
+            toClient.writeObject(response);
+            toClient.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
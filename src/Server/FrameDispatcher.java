@@ -0,0 +1,449 @@
+package Server;
+
+import IO.MazeFrame;
+import IO.MazeProtocol;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the requests of framed connections on a fixed number of worker threads with a bounded queue.
+ * <ul>
+ *     <li>A request that finds the queue full is answered at once with {@link MazeProtocol#OVERLOADED}
+ *     instead of waiting behind an ever longer backlog; so is a request whose handler throws a
+ *     {@link ServerOverloadedException}.</li>
+ *     <li>A {@link MazeProtocol#DEADLINE} request is dropped, with an {@link MazeProtocol#ERROR} answer,
+ *     if it is still queued when its time is up, and its worker is interrupted if it is still running.</li>
+ *     <li>A {@link MazeProtocol#CANCEL} frame, or the connection closing, drops the connection's requests that
+ *     have not started and interrupts those that are running, since their client no longer waits for them.</li>
+ * </ul>
+ * Interrupting a running request stops it only where its work checks for interruption,
+ * e.g. between the rows of a streaming generator. A response that is being written straight to the client
+ * is not interrupted, since a frame cut short would break the connection's framing.
+ */
+public class FrameDispatcher {
+    private static final ScheduledThreadPoolExecutor DEADLINES = deadlineTimer();
+    private final IFrameHandler frameHandler;
+    private final ThreadPoolExecutor workers;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * Constructs a dispatcher.
+     *
+     * @param frameHandler  The handler that answers each frame
+     * @param workerThreads Number of threads handling requests of all connections
+     * @param queueCapacity Number of requests that may wait for a worker
+     * @param threadName    Name of the worker threads
+     */
+    public FrameDispatcher(IFrameHandler frameHandler, int workerThreads, int queueCapacity, String threadName) {
+        this.frameHandler = frameHandler;
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the queue capacity configured with the system property {@code maze.server.queueCapacity},
+     * 64 requests per worker by default.
+     *
+     * @param workerThreads Number of worker threads
+     * @return Queue capacity
+     */
+    public static int defaultQueueCapacity(int workerThreads) {
+        return Integer.getInteger("maze.server.queueCapacity", 64 * workerThreads);
+    }
+
+    /**
+     * Starts serving a connection.
+     *
+     * @param responder            Sends the responses of the connection's requests
+     * @param interruptibleWriting true if the responder only encodes responses in memory, so a request can still be
+     *                             interrupted while its response is produced; false if it writes them to the client
+     * @return The connection's session, to pass its requests to
+     */
+    public Session openSession(Responder responder, boolean interruptibleWriting) {
+        return new Session(responder, interruptibleWriting);
+    }
+
+    /**
+     * Changes the number of worker threads. Extra threads stop once they finish their current request.
+     *
+     * @param workerThreads Number of threads handling requests of all connections
+     */
+    public void setWorkerThreads(int workerThreads) {
+        synchronized (workers) {
+            if (workerThreads > workers.getMaximumPoolSize()) {
+                workers.setMaximumPoolSize(workerThreads);
+                workers.setCorePoolSize(workerThreads);
+            } else {
+                workers.setCorePoolSize(workerThreads);
+                workers.setMaximumPoolSize(workerThreads);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of worker threads.
+     *
+     * @return Number of threads handling requests
+     */
+    public int getWorkerThreads() {
+        return workers.getMaximumPoolSize();
+    }
+
+    /**
+     * Runs a task on a worker thread unless the queue is full.
+     *
+     * @param task The task
+     * @return true if the task was queued, false if it was turned away
+     */
+    public boolean tryExecute(Runnable task) {
+        try {
+            workers.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of requests turned away because the queue was full or they were too large.
+     *
+     * @return Number of rejected requests
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Returns the number of requests dropped because their deadline passed.
+     *
+     * @return Number of expired requests
+     */
+    public long getExpired() {
+        return expired.get();
+    }
+
+    /**
+     * Returns the number of requests dropped because their client cancelled them or disconnected.
+     *
+     * @return Number of cancelled requests
+     */
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Returns the number of requests a worker is running.
+     *
+     * @return Approximate number of running requests
+     */
+    public int getActive() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * Returns the number of requests waiting for a worker.
+     *
+     * @return Queue length
+     */
+    public int getQueued() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Returns the dispatcher's metrics in one line.
+     *
+     * @return The metrics
+     */
+    @Override
+    public String toString() {
+        return String.format("FrameDispatcher[threads=%d, active=%d, queued=%d, rejected=%d, expired=%d, cancelled=%d]",
+                getWorkerThreads(), getActive(), getQueued(), getRejected(), getExpired(), getCancelled());
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Returns the timer that enforces deadlines.
+     *
+     * @return A single daemon thread timer that forgets cancelled timeouts
+     */
+    private static ScheduledThreadPoolExecutor deadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "request-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * The requests of one connection that have not been answered yet.
+     */
+    public final class Session {
+        private final Responder responder;
+        private final boolean interruptibleWriting;
+        private final Map<Long, Request> inFlight = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        /**
+         * Constructs a session.
+         *
+         * @param responder            Sends the responses of the connection's requests
+         * @param interruptibleWriting true if a request may be interrupted while its response is produced
+         */
+        private Session(Responder responder, boolean interruptibleWriting) {
+            this.responder = responder;
+            this.interruptibleWriting = interruptibleWriting;
+        }
+
+        /**
+         * Takes a request frame read from the connection: queues it for a worker,
+         * answers it at once if there is no room, or applies it if it is a cancellation.
+         *
+         * @param frame The request frame
+         */
+        public void dispatch(MazeFrame frame) {
+            if (frame.getType() == MazeProtocol.CANCEL) {
+                Request request = inFlight.get(frame.getRequestId());
+                if (request != null && request.cancel())
+                    cancelled.incrementAndGet();
+                return;
+            }
+            long deadline = 0;
+            MazeFrame requestFrame = frame;
+            if (frame.getType() == MazeProtocol.DEADLINE) {
+                try {
+                    int timeoutMillis = MazeProtocol.readDeadlineMillis(frame.getPayload());
+                    requestFrame = MazeProtocol.unwrapDeadline(frame);
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMillis, 0));
+                } catch (IOException e) {
+                    respond(new MazeFrame(MazeProtocol.ERROR, frame.getRequestId(), MazeProtocol.errorMessage(e.getMessage())));
+                    return;
+                }
+            }
+            Request request = new Request(this, requestFrame, deadline);
+            inFlight.put(frame.getRequestId(), request);
+            if (closed) {
+                request.cancel();
+                return;
+            }
+            if (!tryExecute(request)) {
+                inFlight.remove(frame.getRequestId(), request);
+                respond(new MazeFrame(MazeProtocol.OVERLOADED, frame.getRequestId(),
+                        MazeProtocol.errorMessage("Server overloaded: " + workers.getQueue().size() + " requests queued")));
+                return;
+            }
+            if (deadline != 0)
+                request.expireAtDeadline();
+        }
+
+        /**
+         * Answers a request with {@link MazeProtocol#OVERLOADED} without running it,
+         * for a request the connection did not read in full because it was too large.
+         *
+         * @param requestId ID of the request
+         * @param message   Why the request was turned away
+         */
+        public void reject(long requestId, String message) {
+            rejected.incrementAndGet();
+            respond(new MazeFrame(MazeProtocol.OVERLOADED, requestId, MazeProtocol.errorMessage(message)));
+        }
+
+        /**
+         * Returns the number of the connection's requests that are queued or running.
+         *
+         * @return Number of requests in flight
+         */
+        public int inFlight() {
+            return inFlight.size();
+        }
+
+        /**
+         * Ends the session because the connection closed: drops the queued requests and interrupts the running ones.
+         */
+        public void close() {
+            closed = true;
+            for (Request request : inFlight.values()) {
+                if (request.cancel())
+                    cancelled.incrementAndGet();
+            }
+        }
+
+        /**
+         * Sends a response unless the connection has closed.
+         *
+         * @param response The response frame
+         */
+        private void respond(MazeFrame response) {
+            if (!closed)
+                responder.respond(response);
+        }
+    }
+
+    /**
+     * One queued or running request. It answers its client when it completes and leaves the session's
+     * table when it completes or is cancelled. The response is written by the worker as part of the request,
+     * so cancelling also stops a response that is generated while it is written, such as a streamed maze.
+     */
+    private final class Request implements Runnable {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int WRITING = 2;
+        private static final int DONE = 3;
+        private final Session session;
+        private final MazeFrame frame;
+        private final long deadline;
+        private int state = QUEUED;
+        private boolean cancelled;
+        private Thread worker;
+        private volatile ScheduledFuture<?> timeout;
+
+        /**
+         * Constructs a request.
+         *
+         * @param session  Session of the connection it came from
+         * @param frame    The request frame, without its deadline wrapper
+         * @param deadline {@link System#nanoTime()} by which it must be answered, or 0 for none
+         */
+        private Request(Session session, MazeFrame frame, long deadline) {
+            this.session = session;
+            this.frame = frame;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Answers the request, unless it was cancelled while queued.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (state != QUEUED)
+                    return;
+                state = RUNNING;
+                worker = Thread.currentThread();
+            }
+            try {
+                MazeFrame response = answer(frame, deadline);
+                synchronized (this) {
+                    if (cancelled)
+                        return;
+                    if (!session.interruptibleWriting)
+                        state = WRITING;
+                }
+                session.respond(response);
+            } finally {
+                synchronized (this) {
+                    state = DONE;
+                    worker = null;
+                    Thread.interrupted(); // a cancellation must not reach the worker's next request
+                }
+                finish();
+            }
+        }
+
+        /**
+         * Drops the request if it is queued, or interrupts its worker if it is running.
+         * A request whose response is already being written to the client is left to finish.
+         *
+         * @return true if the request was stopped
+         */
+        private boolean cancel() {
+            synchronized (this) {
+                if (state == DONE || state == WRITING || cancelled)
+                    return false;
+                cancelled = true;
+                if (state == RUNNING) {
+                    worker.interrupt();
+                    return true;
+                }
+                state = DONE;
+            }
+            workers.remove(this); // free its place in the queue
+            finish();
+            return true;
+        }
+
+        /**
+         * Schedules the request to be dropped when its deadline passes.
+         */
+        private void expireAtDeadline() {
+            timeout = DEADLINES.schedule(() -> {
+                if (cancel()) {
+                    expired.incrementAndGet();
+                    session.respond(new MazeFrame(MazeProtocol.ERROR, frame.getRequestId(), MazeProtocol.errorMessage("Deadline exceeded")));
+                }
+            }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                if (state == DONE)
+                    timeout.cancel(false);
+            }
+        }
+
+        /**
+         * Removes the request from its session and stops its timeout.
+         */
+        private void finish() {
+            session.inFlight.remove(frame.getRequestId(), this);
+            ScheduledFuture<?> pendingTimeout = timeout;
+            if (pendingTimeout != null)
+                pendingTimeout.cancel(false);
+        }
+    }
+
+    /**
+     * Handles a request on a worker thread.
+     *
+     * @param frame    The request frame
+     * @param deadline {@link System#nanoTime()} by which it must be answered, or 0 for none
+     * @return The response, an {@link MazeProtocol#OVERLOADED} frame or an {@link MazeProtocol#ERROR} frame
+     */
+    private MazeFrame answer(MazeFrame frame, long deadline) {
+        if (deadline != 0 && System.nanoTime() - deadline >= 0) {
+            expired.incrementAndGet();
+            return new MazeFrame(MazeProtocol.ERROR, frame.getRequestId(), MazeProtocol.errorMessage("Deadline exceeded"));
+        }
+        try {
+            return frameHandler.handle(frame);
+        } catch (ServerOverloadedException e) {
+            rejected.incrementAndGet();
+            return new MazeFrame(MazeProtocol.OVERLOADED, frame.getRequestId(), MazeProtocol.errorMessage(e.getMessage()));
+        } catch (Exception e) {
+            return new MazeFrame(MazeProtocol.ERROR, frame.getRequestId(), MazeProtocol.errorMessage(e.getMessage()));
+        }
+    }
+
+    /**
+     * Sends responses to one connection. Called from worker threads, possibly several at once.
+     */
+    public interface Responder {
+
+        /**
+         * Sends a response frame.
+         *
+         * @param response The response frame
+         */
+        void respond(MazeFrame response);
+    }
+}
@@ -0,0 +1,164 @@
+package Server;
+
+import IO.MazeFrame;
+import IO.MazeProtocol;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers every request type a server offers on one port by dispatching each frame on its type
+ * to the handler registered for it. Besides frame handlers, one-shot object strategies and object request
+ * handlers can be registered under a type: the frame's payload is the serialized request object and the answer is an
+ * {@link MazeProtocol#OBJECT} frame, so a new strategy is offered without opening another port.
+ * All registered types share the workers, queue and connections of the server the router is served by.
+ * <p>
+ * The router counts the requests, failures and handling time of each type; {@link #toString()}
+ * reports them together with any other metrics registered with {@link #addMetrics}.
+ */
+public class FrameRouter implements IFrameHandler {
+    private final Map<Byte, Route> routes = new ConcurrentSkipListMap<>();
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Registers the handler of a request type, replacing the previous one.
+     *
+     * @param type    Request type
+     * @param name    Name of the request type in the metrics
+     * @param handler The handler answering frames of that type
+     * @throws IllegalArgumentException If the type is one the connection itself interprets, or a response type
+     */
+    public void register(byte type, String name, IFrameHandler handler) {
+        if (type == MazeProtocol.DEADLINE || type == MazeProtocol.CANCEL || type == MazeProtocol.OBJECT
+                || type == MazeProtocol.OVERLOADED || type == MazeProtocol.ERROR)
+            throw new IllegalArgumentException("Reserved request type: " + type);
+        routes.put(type, new Route(name, handler));
+    }
+
+    /**
+     * Registers a one-shot object strategy under a request type, replacing the previous handler.
+     * The strategy runs against in-memory streams (see {@link StrategyRequestHandler}), so it behaves as on a port of its own.
+     *
+     * @param type     Request type, usually {@link MazeProtocol#FIRST_STRATEGY} or above
+     * @param name     Name of the request type in the metrics
+     * @param strategy The strategy answering requests of that type
+     */
+    public void register(byte type, String name, IServerStrategy strategy) {
+        registerObjects(type, name, new StrategyRequestHandler(strategy));
+    }
+
+    /**
+     * Registers an object request handler under a request type, replacing the previous handler.
+     * The frame's payload is the serialized request object and the answer an {@link MazeProtocol#OBJECT} frame,
+     * as for a registered strategy, so a handler can stand in for the strategy a type was meant for.
+     *
+     * @param type    Request type, usually {@link MazeProtocol#FIRST_STRATEGY} or above
+     * @param name    Name of the request type in the metrics
+     * @param handler The handler answering requests of that type
+     */
+    public void registerObjects(byte type, String name, IRequestHandler handler) {
+        register(type, name, request -> {
+            Object response = handler.handle(MazeProtocol.readObject(request.getPayload()));
+            return new MazeFrame(MazeProtocol.OBJECT, request.getRequestId(), MazeProtocol.objectPayload(response));
+        });
+    }
+
+    /**
+     * Adds a component whose {@code toString()} reports its metrics along with the router's, such as a maze pool.
+     *
+     * @param name      Name of the component
+     * @param component The component
+     */
+    public void addMetrics(String name, Object component) {
+        metrics.put(name, component);
+    }
+
+    /**
+     * Dispatches the frame to the handler registered for its type.
+     *
+     * @param request The request frame
+     * @return The response frame
+     * @throws Exception If no handler is registered for the type or the handler failed
+     */
+    @Override
+    public MazeFrame handle(MazeFrame request) throws Exception {
+        Route route = routes.get(request.getType());
+        if (route == null)
+            throw new IOException("Unsupported request type: " + request.getType());
+        long start = System.nanoTime();
+        try {
+            return route.handler.handle(request);
+        } catch (Exception e) {
+            route.failures.incrementAndGet();
+            throw e;
+        } finally {
+            route.requests.incrementAndGet();
+            route.nanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the number of requests of a type that were handled, including failed ones.
+     *
+     * @param type Request type
+     * @return Number of requests, 0 if the type is not registered
+     */
+    public long getRequests(byte type) {
+        Route route = routes.get(type);
+        return route == null ? 0 : route.requests.get();
+    }
+
+    /**
+     * Returns the number of requests of a type whose handler failed.
+     *
+     * @param type Request type
+     * @return Number of failed requests, 0 if the type is not registered
+     */
+    public long getFailures(byte type) {
+        Route route = routes.get(type);
+        return route == null ? 0 : route.failures.get();
+    }
+
+    /**
+     * Returns the metrics of every registered type, one per line, followed by those of the added components.
+     *
+     * @return The metrics
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Byte, Route> entry : routes.entrySet()) {
+            Route route = entry.getValue();
+            long requests = route.requests.get();
+            text.append(String.format("%s[type=%d, requests=%d, failures=%d, avgMillis=%.2f]%n", route.name, entry.getKey(),
+                    requests, route.failures.get(), requests == 0 ? 0 : route.nanos.get() / 1e6 / requests));
+        }
+        for (Map.Entry<String, Object> entry : metrics.entrySet())
+            text.append(entry.getKey()).append(": ").append(entry.getValue()).append(System.lineSeparator());
+        return text.toString();
+    }
+
+    /**
+     * The handler of one request type and its counters.
+     */
+    private static final class Route {
+        private final String name;
+        private final IFrameHandler handler;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        /**
+         * Constructs a route.
+         *
+         * @param name    Name of the request type
+         * @param handler Its handler
+         */
+        private Route(String name, IFrameHandler handler) {
+            this.name = name;
+            this.handler = handler;
+        }
+    }
+}
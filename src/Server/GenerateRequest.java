@@ -0,0 +1,91 @@
+package Server;
+
+import java.io.Serializable;
+
+/**
+ * A generate request naming the maze generator to use, and optionally the seed to generate the maze from.
+ * Handlers that accept it also accept a plain int[]{rows, cols}, which is generated with the server's generator.
+ */
+public class GenerateRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int rows;
+    private final int cols;
+    private final String algorithm;
+    private final Long seed;
+
+    /**
+     * Constructs an unseeded request.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param algorithm Name of a generator in {@link AlgorithmRegistry}, or null for the server's choice
+     */
+    public GenerateRequest(int rows, int cols, String algorithm) {
+        this(rows, cols, algorithm, null);
+    }
+
+    /**
+     * Constructs a request.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param algorithm Name of a generator in {@link AlgorithmRegistry}, or null for the server's choice
+     * @param seed      Seed for a generator that can be seeded (see {@link AlgorithmRegistry#isSeededGenerator}),
+     *                  or null for a random maze
+     */
+    public GenerateRequest(int rows, int cols, String algorithm, Long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    /**
+     * Reads a request accepted by the generate handlers.
+     *
+     * @param request A GenerateRequest or a plain int[]{rows, cols}
+     * @return The request, with no generator named for a plain int[]
+     */
+    public static GenerateRequest from(Object request) {
+        if (request instanceof GenerateRequest)
+            return (GenerateRequest) request;
+        int[] mazeDimensions = (int[]) request;
+        return new GenerateRequest(mazeDimensions[0], mazeDimensions[1], null);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the name of the requested generator.
+     *
+     * @return The algorithm name, or null for the server's choice
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Returns the seed to generate the maze from.
+     *
+     * @return The seed, or null for a random maze
+     */
+    public Long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,78 @@
+package Server;
+
+import IO.MazeEncoder;
+import IO.MazeRowWriter;
+import algorithms.mazeGenerators.IMazeGenerator;
+import algorithms.mazeGenerators.IStreamingMazeGenerator;
+import algorithms.mazeGenerators.Maze;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Generates mazes with a generator from {@link AlgorithmRegistry} and answers with the maze
+ * compressed in MyCompressorOutputStream format, as ServerStrategyGenerateMaze does.
+ */
+public class GenerateRequestHandler implements IRequestHandler {
+    private final String algorithm;
+
+    /**
+     * Constructs a handler using the generator named in the configuration.
+     */
+    public GenerateRequestHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a handler using the given generator unless a request names another one.
+     *
+     * @param algorithm Name of a registered maze generator, or null for the configured one
+     */
+    public GenerateRequestHandler(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Generates a maze.
+     *
+     * @param request A {@link GenerateRequest} or a plain int[]{rows, cols}
+     * @return The compressed maze as a byte[]
+     * @throws ServerOverloadedException If the maze does not fit in the free heap
+     */
+    @Override
+    public Object handle(Object request) throws ServerOverloadedException {
+        GenerateRequest generateRequest = GenerateRequest.from(request);
+        String requestedAlgorithm = generateRequest.getAlgorithm() != null ? generateRequest.getAlgorithm() : algorithm;
+        IMazeGenerator mazeGenerator = generateRequest.getSeed() == null
+                ? AlgorithmRegistry.createGenerator(requestedAlgorithm)
+                : AlgorithmRegistry.createGenerator(requestedAlgorithm, generateRequest.getSeed());
+        boolean streaming = mazeGenerator instanceof IStreamingMazeGenerator;
+        MazeSizeLimits.check(generateRequest.getRows(), generateRequest.getCols(),
+                streaming ? MazeSizeLimits.STREAMED_BYTES_PER_CELL : MazeSizeLimits.GENERATE_BYTES_PER_CELL);
+        if (streaming)
+            return streamToBytes((IStreamingMazeGenerator) mazeGenerator, generateRequest.getRows(), generateRequest.getCols());
+        Maze maze = mazeGenerator.generate(generateRequest.getRows(), generateRequest.getCols());
+        return MazeEncoder.toBytes(maze);
+    }
+
+    /**
+     * Compresses the rows of a streaming generator as they are produced, without building the maze first.
+     *
+     * @param mazeGenerator The generator
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @return The compressed maze
+     */
+    private static byte[] streamToBytes(IStreamingMazeGenerator mazeGenerator, int rows, int cols) {
+        if (rows <= 0 || cols <= 0)
+            throw new IllegalArgumentException("Invalid maze size: " + rows + "x" + cols);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) MazeEncoder.encodedSize(rows, cols));
+        try {
+            mazeGenerator.generate(rows, cols, new MazeRowWriter(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // only when interrupted, nothing else fails with an in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,15 @@
+package Server;
+
+import IO.MazeFrame;
+
+public interface IFrameHandler {
+
+    /**
+     * Handles one request frame of the framed maze protocol.
+     *
+     * @param request The request frame
+     * @return The response frame, carrying the request's ID
+     * @throws Exception If the request could not be handled
+     */
+    MazeFrame handle(MazeFrame request) throws Exception;
+}
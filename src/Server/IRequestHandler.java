@@ -0,0 +1,13 @@
+package Server;
+
+public interface IRequestHandler {
+
+    /**
+     * Handles a single request received over a persistent connection.
+     *
+     * @param request The request object sent by the client
+     * @return The response object to send back to the client
+     * @throws Exception If the request could not be handled
+     */
+    Object handle(Object request) throws Exception;
+}
@@ -0,0 +1,203 @@
+package Server;
+
+import IO.MazeDecoder;
+import IO.MazeEncoder;
+import IO.MazeFrame;
+import IO.MazeProtocol;
+import IO.MazeSeed;
+import IO.MazeRowWriter;
+import IO.SolutionCodec;
+import IO.StreamedMazeFrame;
+import algorithms.mazeGenerators.IMazeGenerator;
+import algorithms.mazeGenerators.IStreamingMazeGenerator;
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.Solution;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Answers generate and solve frames of the framed maze protocol.
+ * The actual work is done by the same request handlers the object protocol uses;
+ * this class only translates between frames and their objects.
+ * A generate-and-solve frame needs both handlers: the compressed maze the generator returns
+ * is already a solve payload, so it is solved here without sending it back and forth.
+ * Generate frames for a generator that can stream its rows ({@link IStreamingMazeGenerator}) are answered
+ * by writing the rows straight into the response frame as they are generated, so the maze is never held
+ * in memory; such mazes bypass the generate handler and are not pooled.
+ * Seeded generate frames are answered with the maze's seed record in front of it when the generator
+ * can be seeded, and like unseeded frames otherwise; the solutions of seeded mazes are cached by seed.
+ */
+public class MazeFrameHandler implements IFrameHandler {
+    private final IRequestHandler generator;
+    private final IRequestHandler solver;
+    private final SolutionCache solutionCache;
+
+    /**
+     * Constructs the handler. Either handler may be null if this server does not offer that request.
+     *
+     * @param generator Handler turning a {@link GenerateRequest} into a compressed maze byte[]
+     * @param solver    Handler turning a {@link SolveRequest} into a Solution
+     */
+    public MazeFrameHandler(IRequestHandler generator, IRequestHandler solver) {
+        this(generator, solver, null);
+    }
+
+    /**
+     * Constructs the handler. Either handler may be null if this server does not offer that request.
+     *
+     * @param generator     Handler turning a {@link GenerateRequest} into a compressed maze byte[]
+     * @param solver        Handler turning a {@link SolveRequest} into a Solution
+     * @param solutionCache Cache consulted before solving, or null to always solve
+     */
+    public MazeFrameHandler(IRequestHandler generator, IRequestHandler solver, SolutionCache solutionCache) {
+        this.generator = generator;
+        this.solver = solver;
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * Dispatches the frame on its type.
+     *
+     * @param request The request frame
+     * @return The response frame
+     * @throws Exception If the request could not be handled
+     */
+    @Override
+    public MazeFrame handle(MazeFrame request) throws Exception {
+        switch (request.getType()) {
+            case MazeProtocol.GENERATE -> {
+                if (generator == null)
+                    break;
+                ByteBuffer payload = ByteBuffer.wrap(request.getPayload());
+                GenerateRequest generateRequest = new GenerateRequest(payload.getInt(), payload.getInt(),
+                        MazeProtocol.readAlgorithm(request.getPayload(), 8));
+                IMazeGenerator mazeGenerator = AlgorithmRegistry.createGenerator(generateRequest.getAlgorithm());
+                if (mazeGenerator instanceof IStreamingMazeGenerator)
+                    return streamMaze(request.getRequestId(), generateRequest, (IStreamingMazeGenerator) mazeGenerator);
+                byte[] compressedMaze = (byte[]) generator.handle(generateRequest);
+                return new MazeFrame(MazeProtocol.MAZE, request.getRequestId(), compressedMaze);
+            }
+            case MazeProtocol.SOLVE -> {
+                if (solver == null)
+                    break;
+                return new MazeFrame(MazeProtocol.SOLUTION, request.getRequestId(), solveCached(request.getPayload()));
+            }
+            case MazeProtocol.GENERATE_AND_SOLVE -> {
+                if (generator == null || solver == null)
+                    break;
+                ByteBuffer payload = ByteBuffer.wrap(request.getPayload());
+                String[] algorithms = MazeProtocol.readGenerateAndSolveAlgorithms(request.getPayload());
+                byte[] compressedMaze = (byte[]) generator.handle(new GenerateRequest(payload.getInt(), payload.getInt(), algorithms[0]));
+                byte[] encodedSolution = solveCached(MazeProtocol.withAlgorithm(compressedMaze, algorithms[1]));
+                return new MazeFrame(MazeProtocol.MAZE_AND_SOLUTION, request.getRequestId(),
+                        MazeProtocol.mazeAndSolution(compressedMaze, encodedSolution));
+            }
+            case MazeProtocol.GENERATE_SEEDED -> {
+                ByteBuffer payload = ByteBuffer.wrap(request.getPayload());
+                int rows = payload.getInt();
+                int cols = payload.getInt();
+                long seed = payload.getLong();
+                boolean withSolution = payload.get() != 0;
+                String[] algorithms = MazeProtocol.readGenerateSeededAlgorithms(request.getPayload());
+                if (generator == null || withSolution && solver == null)
+                    break;
+                return generateSeeded(request.getRequestId(), rows, cols, seed, withSolution, algorithms[0], algorithms[1]);
+            }
+        }
+        throw new IOException("Unsupported request type: " + request.getType());
+    }
+
+    /**
+     * Answers a seeded generate frame.
+     *
+     * @param requestId     ID of the request being answered
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @param seed          Seed for the generator
+     * @param withSolution  true to solve the maze too
+     * @param generatorName Name of the generator, or null for the configured one
+     * @param solverName    Name of the searching algorithm, or null for the configured one
+     * @return A {@link MazeProtocol#SEEDED_MAZE} frame, or an unseeded answer if the generator cannot be seeded
+     * @throws Exception If the maze could not be generated or solved
+     */
+    private MazeFrame generateSeeded(long requestId, int rows, int cols, long seed, boolean withSolution,
+                                     String generatorName, String solverName) throws Exception {
+        String name = generatorName != null ? generatorName : AlgorithmRegistry.getConfiguredGenerator();
+        if (!AlgorithmRegistry.isSeededGenerator(name)) {
+            byte[] compressedMaze = (byte[]) generator.handle(new GenerateRequest(rows, cols, name));
+            if (!withSolution)
+                return new MazeFrame(MazeProtocol.MAZE, requestId, compressedMaze);
+            byte[] encodedSolution = solveCached(MazeProtocol.withAlgorithm(compressedMaze, solverName));
+            return new MazeFrame(MazeProtocol.MAZE_AND_SOLUTION, requestId, MazeProtocol.mazeAndSolution(compressedMaze, encodedSolution));
+        }
+        MazeSeed mazeSeed = new MazeSeed(name, rows, cols, seed);
+        IMazeGenerator mazeGenerator = AlgorithmRegistry.createGenerator(name, seed);
+        if (!withSolution && mazeGenerator instanceof IStreamingMazeGenerator) {
+            if (rows <= 0 || cols <= 0)
+                throw new IOException("Invalid maze size: " + rows + "x" + cols);
+            byte[] record = mazeSeed.toBytes();
+            return new StreamedMazeFrame(MazeProtocol.SEEDED_MAZE, requestId, record.length + MazeEncoder.encodedSize(rows, cols), out -> {
+                out.write(record);
+                ((IStreamingMazeGenerator) mazeGenerator).generate(rows, cols, new MazeRowWriter(out));
+            });
+        }
+        byte[] compressedMaze = (byte[]) generator.handle(new GenerateRequest(rows, cols, name, seed));
+        byte[] encodedSolution = null;
+        if (withSolution) {
+            byte[] solvePayload = MazeProtocol.withAlgorithm(compressedMaze, solverName);
+            encodedSolution = solutionCache == null
+                    ? solve(solvePayload)
+                    : solutionCache.getOrSolve(SolutionCache.Key.ofSeed(compressedMaze, mazeSeed.toBytes(), solverName), () -> solve(solvePayload));
+        }
+        return new MazeFrame(MazeProtocol.SEEDED_MAZE, requestId, MazeProtocol.seededMaze(mazeSeed, compressedMaze, encodedSolution));
+    }
+
+    /**
+     * Builds a maze response whose rows are generated while the frame is written to the client.
+     *
+     * @param requestId       ID of the request being answered
+     * @param generateRequest Size of the maze
+     * @param mazeGenerator   Generator producing the rows
+     * @return The response frame
+     * @throws IOException If the maze is too large for a frame
+     */
+    private MazeFrame streamMaze(long requestId, GenerateRequest generateRequest, IStreamingMazeGenerator mazeGenerator) throws IOException {
+        int rows = generateRequest.getRows();
+        int cols = generateRequest.getCols();
+        if (rows <= 0 || cols <= 0)
+            throw new IOException("Invalid maze size: " + rows + "x" + cols);
+        return new StreamedMazeFrame(MazeProtocol.MAZE, requestId, MazeEncoder.encodedSize(rows, cols),
+                out -> mazeGenerator.generate(rows, cols, new MazeRowWriter(out)));
+    }
+
+    /**
+     * Solves a maze, through the solution cache if there is one.
+     *
+     * @param payload The maze in MyCompressorOutputStream format, optionally followed by an algorithm name
+     * @return The solution in {@link SolutionCodec} format
+     * @throws Exception If the maze could not be decoded or solved
+     */
+    private byte[] solveCached(byte[] payload) throws Exception {
+        return solutionCache == null ? solve(payload) : solutionCache.getOrSolve(payload, () -> solve(payload));
+    }
+
+    /**
+     * Decodes a maze and solves it.
+     *
+     * @param payload The maze in MyCompressorOutputStream format, optionally followed by an algorithm name
+     * @return The solution in {@link SolutionCodec} format
+     * @throws Exception If the maze could not be decoded or solved, or does not fit in the free heap
+     */
+    private byte[] solve(byte[] payload) throws Exception {
+        String algorithm = MazeProtocol.readAlgorithm(payload, MazeProtocol.mazeLength(payload));
+        if (solver instanceof SearchRequestHandler)
+            algorithm = ((SearchRequestHandler) solver).resolveAlgorithm(algorithm); // estimate and solve with the same one
+        ByteBuffer header = ByteBuffer.wrap(payload);
+        MazeSizeLimits.check(header.getInt(), header.getInt(), AlgorithmRegistry.getSolverBytesPerCell(algorithm));
+        Maze maze = MazeDecoder.readMaze(new ByteArrayInputStream(payload));
+        Solution solution = (Solution) solver.handle(new SolveRequest(maze, algorithm));
+        return SolutionCodec.encode(solution, maze);
+    }
+}
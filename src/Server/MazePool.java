@@ -0,0 +1,406 @@
+package Server;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pool of already generated and compressed mazes in front of a generate handler, kept per size and generator.
+ * A request takes a pooled maze when there is one and is generated on the spot otherwise; either way the
+ * size is remembered and background threads generate mazes for it until its shelf is full again.
+ * The refill threads run at low priority and wait while a maze is being generated for a request that missed
+ * the pool, and while the condition given to {@link #pauseWhile} holds, such as the server's dispatcher having
+ * requests queued or running. Without that condition, requests that are not generated by the pool (solves,
+ * pool hits) do not hold the refills back.
+ * <p>
+ * The pool holds at most {@code mazesPerSize} mazes of each size, at most {@code maxSizes} sizes
+ * (the least recently requested size is dropped first) and at most {@code maxBytes} bytes of mazes in total.
+ * Requests that name no generator are pooled under the configured generator's name.
+ * Seeded requests ask for one particular maze, so they are passed straight to the wrapped handler.
+ */
+public class MazePool implements IRequestHandler, Closeable {
+    private static final long IDLE_WAIT_MILLIS = 5;
+    private final IRequestHandler generator;
+    private final int mazesPerSize;
+    private final int maxSizes;
+    private final long maxBytes;
+    private final Map<Shelf.Key, Shelf> shelves = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<Shelf> refills = new LinkedBlockingQueue<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refilled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread[] refillThreads;
+    private volatile BooleanSupplier busy = () -> false;
+    private volatile boolean closed;
+
+    /**
+     * Constructs an empty pool and starts its refill threads.
+     *
+     * @param generator     Handler turning a {@link GenerateRequest} into a compressed maze byte[]
+     * @param mazesPerSize  Number of mazes kept ready for each size
+     * @param maxSizes      Number of sizes kept
+     * @param maxBytes      Maximum total size of the pooled mazes, in bytes
+     * @param refillThreads Number of background threads generating mazes for the pool
+     */
+    public MazePool(IRequestHandler generator, int mazesPerSize, int maxSizes, long maxBytes, int refillThreads) {
+        this.generator = generator;
+        this.mazesPerSize = mazesPerSize;
+        this.maxSizes = maxSizes;
+        this.maxBytes = maxBytes;
+        this.refillThreads = new Thread[refillThreads];
+        for (int i = 0; i < refillThreads; i++) {
+            Thread thread = new Thread(this::refill, "maze-pool-refill-" + i);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            this.refillThreads[i] = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Answers a generate request with a pooled maze if there is one, or a newly generated one otherwise.
+     *
+     * @param request A {@link GenerateRequest} or a plain int[]{rows, cols}
+     * @return The compressed maze as a byte[]
+     * @throws Exception If the maze could not be generated
+     */
+    @Override
+    public Object handle(Object request) throws Exception {
+        GenerateRequest generateRequest = GenerateRequest.from(request);
+        if (generateRequest.getSeed() != null)
+            return generator.handle(generateRequest);
+        Shelf shelf = shelf(generateRequest.getRows(), generateRequest.getCols(), generateRequest.getAlgorithm());
+        shelf.lastRequested = System.nanoTime();
+        byte[] maze = shelf.mazes.poll();
+        if (maze != null) {
+            hits.incrementAndGet();
+            shelf.count.decrementAndGet();
+            pooledBytes.addAndGet(-maze.length);
+            scheduleRefill(shelf);
+            return maze;
+        }
+        misses.incrementAndGet();
+        activeRequests.incrementAndGet();
+        try {
+            maze = generate(shelf.key);
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+        scheduleRefill(shelf);
+        return maze;
+    }
+
+    /**
+     * Starts filling the shelf of a size before it is first requested.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param algorithm Name of a registered maze generator, or null for the configured one
+     */
+    public void prepare(int rows, int cols, String algorithm) {
+        scheduleRefill(shelf(rows, cols, algorithm));
+    }
+
+    /**
+     * Starts filling the shelves of a list of sizes, such as {@code "50x50,100x100"}.
+     * Malformed entries are reported and skipped.
+     *
+     * @param sizes Comma separated sizes, each rows x columns
+     */
+    public void prepare(String sizes) {
+        for (String size : sizes.split(",")) {
+            if (size.isBlank())
+                continue;
+            try {
+                String[] dimensions = size.trim().split("[xX]");
+                prepare(Integer.parseInt(dimensions[0].trim()), Integer.parseInt(dimensions[1].trim()), null);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the shelf of a size, creating it and dropping the least recently requested shelf if there are too many.
+     *
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param algorithm Generator name, or null for the configured one
+     * @return The shelf
+     */
+    private Shelf shelf(int rows, int cols, String algorithm) {
+        String generatorName = algorithm != null ? algorithm : AlgorithmRegistry.getConfiguredGenerator();
+        Shelf.Key key = new Shelf.Key(rows, cols, generatorName);
+        Shelf shelf = shelves.get(key);
+        if (shelf != null)
+            return shelf;
+        shelf = shelves.computeIfAbsent(key, Shelf::new);
+        while (shelves.size() > maxSizes) {
+            Shelf oldest = null;
+            for (Shelf candidate : shelves.values()) {
+                if (candidate != shelf && (oldest == null || candidate.lastRequested < oldest.lastRequested))
+                    oldest = candidate;
+            }
+            if (oldest == null || !shelves.remove(oldest.key, oldest))
+                break;
+            drain(oldest);
+        }
+        return shelf;
+    }
+
+    /**
+     * Queues a shelf for the refill threads unless it is full or already queued.
+     *
+     * @param shelf The shelf
+     */
+    private void scheduleRefill(Shelf shelf) {
+        if (!closed && shelf.count.get() < mazesPerSize && shelf.queued.compareAndSet(false, true))
+            refills.add(shelf);
+    }
+
+    /**
+     * Makes the refill threads also wait while a condition holds.
+     *
+     * @param busy Tells whether the server has work that refilling would slow down
+     */
+    public void pauseWhile(BooleanSupplier busy) {
+        this.busy = Objects.requireNonNull(busy);
+    }
+
+    /**
+     * Body of the refill threads: generates one maze at a time for the queued shelves, while no request is being
+     * generated and the server is not busy.
+     */
+    private void refill() {
+        while (!closed) {
+            Shelf shelf;
+            try {
+                shelf = refills.take();
+                while ((activeRequests.get() > 0 || busy.getAsBoolean()) && !closed)
+                    TimeUnit.MILLISECONDS.sleep(IDLE_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            shelf.queued.set(false);
+            if (closed || shelf.evicted || shelf.count.incrementAndGet() > mazesPerSize) {
+                shelf.count.decrementAndGet();
+                continue;
+            }
+            byte[] maze;
+            try {
+                maze = generate(shelf.key);
+            } catch (Exception e) {
+                shelf.count.decrementAndGet();
+                e.printStackTrace();
+                continue;
+            }
+            if (pooledBytes.addAndGet(maze.length) > maxBytes) {
+                // over the memory cap: keep the shelf as it is until requests make room
+                pooledBytes.addAndGet(-maze.length);
+                shelf.count.decrementAndGet();
+                dropped.incrementAndGet();
+                continue;
+            }
+            shelf.mazes.add(maze);
+            refilled.incrementAndGet();
+            if (shelf.evicted)
+                drain(shelf);
+            else
+                scheduleRefill(shelf);
+        }
+    }
+
+    /**
+     * Generates a maze for a shelf with the wrapped handler.
+     *
+     * @param key The shelf's size and generator
+     * @return The compressed maze
+     * @throws Exception If the wrapped handler failed
+     */
+    private byte[] generate(Shelf.Key key) throws Exception {
+        return (byte[]) generator.handle(new GenerateRequest(key.rows, key.cols, key.algorithm));
+    }
+
+    /**
+     * Marks a shelf as dropped and releases its mazes.
+     *
+     * @param shelf The shelf
+     */
+    private void drain(Shelf shelf) {
+        shelf.evicted = true;
+        byte[] maze;
+        while ((maze = shelf.mazes.poll()) != null) {
+            shelf.count.decrementAndGet();
+            pooledBytes.addAndGet(-maze.length);
+        }
+    }
+
+    /**
+     * Returns the number of requests answered from the pool.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of requests that had to be generated on the spot.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of requests answered from the pool.
+     *
+     * @return Hits divided by requests, 0 before the first request
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns the number of mazes the refill threads added to the pool.
+     *
+     * @return Number of mazes generated in the background
+     */
+    public long getRefilled() {
+        return refilled.get();
+    }
+
+    /**
+     * Returns the number of background mazes thrown away because the pool was at its memory cap.
+     *
+     * @return Number of dropped mazes
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of mazes ready in the pool.
+     *
+     * @return Number of pooled mazes
+     */
+    public int getPooledMazes() {
+        int pooled = 0;
+        for (Shelf shelf : shelves.values())
+            pooled += shelf.mazes.size();
+        return pooled;
+    }
+
+    /**
+     * Returns the total size of the pooled mazes.
+     *
+     * @return Size in bytes
+     */
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Stops the refill threads. Pooled mazes are still served.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread thread : refillThreads)
+            thread.interrupt();
+    }
+
+    /**
+     * Returns the pool's metrics in one line.
+     *
+     * @return The metrics
+     */
+    @Override
+    public String toString() {
+        return String.format("MazePool[hits=%d, misses=%d, hitRate=%.2f, refilled=%d, dropped=%d, pooled=%d mazes/%d bytes]",
+                getHits(), getMisses(), getHitRate(), getRefilled(), getDropped(), getPooledMazes(), getPooledBytes());
+    }
+
+    /**
+     * The mazes pooled for one size and generator.
+     */
+    private static final class Shelf {
+        private final Key key;
+        private final ConcurrentLinkedQueue<byte[]> mazes = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger count = new AtomicInteger(); // pooled mazes plus those being generated
+        private final AtomicBoolean queued = new AtomicBoolean();
+        private volatile long lastRequested = System.nanoTime();
+        private volatile boolean evicted;
+
+        /**
+         * Constructs an empty shelf.
+         *
+         * @param key The shelf's size and generator
+         */
+        private Shelf(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Size and generator of a shelf.
+         */
+        private static final class Key {
+            private final int rows;
+            private final int cols;
+            private final String algorithm;
+
+            /**
+             * Constructs a key.
+             *
+             * @param rows      Number of rows
+             * @param cols      Number of columns
+             * @param algorithm Generator name
+             */
+            private Key(int rows, int cols, String algorithm) {
+                this.rows = rows;
+                this.cols = cols;
+                this.algorithm = algorithm;
+            }
+
+            /**
+             * Compares size and generator.
+             *
+             * @param o Another object
+             * @return true if it is a key for the same shelf
+             */
+            @Override
+            public boolean equals(Object o) {
+                if (this == o)
+                    return true;
+                if (!(o instanceof Key))
+                    return false;
+                Key other = (Key) o;
+                return rows == other.rows && cols == other.cols && algorithm.equals(other.algorithm);
+            }
+
+            /**
+             * Hashes size and generator.
+             *
+             * @return The hash code
+             */
+            @Override
+            public int hashCode() {
+                return Objects.hash(rows, cols, algorithm);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package Server;
+
+import IO.MazeProtocol;
+
+/**
+ * Largest mazes the server takes on, derived from the heap that is free when a request arrives.
+ * A request is turned away with a {@link ServerOverloadedException} if its estimated memory need
+ * exceeds a fraction (system property {@code maze.server.heapFraction}, 0.5 by default) of the heap
+ * that can still be allocated, so one huge maze cannot run the server out of memory for everyone.
+ * The estimates are per cell and cover the largest structures each kind of work builds.
+ */
+public final class MazeSizeLimits {
+    /** Generating in memory: the int[][] maze, its byte[] form and the compressed copy. */
+    public static final double GENERATE_BYTES_PER_CELL = 6;
+    /** Generating with a streaming generator into a byte[]: only the compressed maze, one bit per cell. */
+    public static final double STREAMED_BYTES_PER_CELL = 0.125;
+    /**
+     * Solving with a search that builds an object per state, as the jar's searching algorithms do: the decoded
+     * int[][] maze, the states and the search's collections. Other solvers register their own figure with
+     * {@link AlgorithmRegistry#registerSolver(String, java.util.function.Supplier, double)}.
+     */
+    public static final double SOLVE_BYTES_PER_CELL = 88;
+    /** Receiving a request: a maze to solve sent as a serialized int[][], the largest form a request takes. */
+    public static final double REQUEST_BYTES_PER_CELL = 4;
+    private static final int REQUEST_HEADROOM = 64 * 1024;
+    private static final double HEAP_FRACTION = Double.parseDouble(System.getProperty("maze.server.heapFraction", "0.5"));
+
+    private MazeSizeLimits() {
+    }
+
+    /**
+     * Checks that a maze of the given size fits in the free heap.
+     *
+     * @param rows         Number of rows
+     * @param cols         Number of columns
+     * @param bytesPerCell Estimated memory the work needs per cell
+     * @throws ServerOverloadedException If the maze does not fit
+     */
+    public static void check(int rows, int cols, double bytesPerCell) throws ServerOverloadedException {
+        long cells = (long) Math.max(rows, 0) * Math.max(cols, 0);
+        long maxCells = maxCells(bytesPerCell);
+        if (cells > maxCells)
+            throw new ServerOverloadedException(String.format("A %dx%d maze needs about %d MB, the server can take at most %d cells now",
+                    rows, cols, (long) (cells * bytesPerCell) >> 20, maxCells));
+    }
+
+    /**
+     * Returns the largest number of cells the free heap allows for the given work.
+     *
+     * @param bytesPerCell Estimated memory the work needs per cell
+     * @return Maximum number of cells
+     */
+    public static long maxCells(double bytesPerCell) {
+        Runtime runtime = Runtime.getRuntime();
+        long headroom = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        return (long) (headroom * HEAP_FRACTION / bytesPerCell);
+    }
+
+    /**
+     * Returns the longest request frame the server reads now: one holding the largest maze it could still solve
+     * with the registered searching algorithm that needs the least memory.
+     * A longer frame is refused before its payload is read, since a peer can claim any length.
+     *
+     * @return Maximum request frame length in bytes
+     */
+    public static int maxRequestLength() {
+        long length = (long) (maxCells(AlgorithmRegistry.getLightestSolverBytesPerCell()) * REQUEST_BYTES_PER_CELL) + REQUEST_HEADROOM;
+        return (int) Math.min(length, MazeProtocol.MAX_FRAME_LENGTH);
+    }
+}
@@ -0,0 +1,69 @@
+package Server;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.AGridSearch;
+import algorithms.search.ISearchable;
+import algorithms.search.ISearchingAlgorithm;
+import algorithms.search.MazeGrid;
+import algorithms.search.SearchableMaze;
+
+/**
+ * Solves mazes with a searching algorithm from {@link AlgorithmRegistry}, without the per-maze files
+ * ServerStrategySolveSearchProblem keeps in the temporary directory. Caching is left to
+ * {@link SolutionCache} and {@link SolutionStore}.
+ */
+public class SearchRequestHandler implements IRequestHandler {
+    private final String algorithm;
+
+    /**
+     * Constructs a handler using the algorithm named in the configuration.
+     */
+    public SearchRequestHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a handler using the given algorithm unless a request names another one.
+     *
+     * @param algorithm Name of a registered searching algorithm, or null for the configured one
+     */
+    public SearchRequestHandler(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Returns the algorithm that solves a request naming the given algorithm.
+     *
+     * @param requested Algorithm named by the request, or null
+     * @return Name of the algorithm the handler uses
+     */
+    public String resolveAlgorithm(String requested) {
+        if (requested != null)
+            return requested;
+        return algorithm != null ? algorithm : AlgorithmRegistry.getConfiguredSolver();
+    }
+
+    /**
+     * Solves the maze.
+     *
+     * @param request A {@link SolveRequest} or a plain Maze
+     * @return The Solution
+     */
+    @Override
+    public Object handle(Object request) {
+        Maze maze;
+        String requestedAlgorithm = algorithm;
+        if (request instanceof SolveRequest) {
+            SolveRequest solveRequest = (SolveRequest) request;
+            maze = solveRequest.getMaze();
+            if (solveRequest.getAlgorithm() != null)
+                requestedAlgorithm = solveRequest.getAlgorithm();
+        } else {
+            maze = (Maze) request;
+        }
+        ISearchingAlgorithm solver = AlgorithmRegistry.createSolver(requestedAlgorithm);
+        // grid solvers do not need the state SearchableMaze creates for every open cell
+        ISearchable domain = solver instanceof AGridSearch ? MazeGrid.of(maze) : new SearchableMaze(maze);
+        return solver.solve(domain);
+    }
+}
@@ -0,0 +1,418 @@
+package Server;
+
+import IO.MazeFrame;
+import IO.MazeProtocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server for the framed protocol ({@link MazeProtocol}) built on a {@link Selector} and non-blocking channels.
+ * One thread accepts connections, reads request frames and writes response frames for all clients;
+ * a client that sends or reads slowly only delays itself. Frames are handled by a separate pool of
+ * worker threads, so the number of open connections is not limited by the number of threads.
+ * Requests wait for a worker in a bounded queue and can carry deadlines and be cancelled, as described
+ * in {@link FrameDispatcher}; a client closing its connection drops its requests that are still queued or running.
+ * <p>
+ * Unlike {@link ServerStrategyMultiplexed} on the blocking server, it does not accept clients of the
+ * object protocol. Each response is encoded in memory before it is written, including streamed ones,
+ * so very large streamed mazes are better served by the blocking server.
+ * <p>
+ * A client that sends requests faster than it reads the responses is held back: while more than
+ * {@code maze.server.maxQueuedOutput} bytes (4 MiB by default) of responses wait to be written to it, its
+ * connection is neither read nor its buffered requests dispatched, until the queue drains below that again.
+ */
+public class SelectorServer {
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final long MAX_QUEUED_OUTPUT = Long.getLong("maze.server.maxQueuedOutput", 4L * 1024 * 1024);
+    private final int port;
+    private final FrameDispatcher dispatcher;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean stop;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * Constructs a server with one worker per available processor.
+     *
+     * @param port         Port to listen on
+     * @param frameHandler The handler that answers each frame
+     */
+    public SelectorServer(int port, IFrameHandler frameHandler) {
+        this(port, frameHandler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a server with the queue capacity of {@link FrameDispatcher#defaultQueueCapacity}.
+     *
+     * @param port          Port to listen on
+     * @param frameHandler  The handler that answers each frame
+     * @param workerThreads Number of threads handling requests of all connections
+     */
+    public SelectorServer(int port, IFrameHandler frameHandler, int workerThreads) {
+        this(port, frameHandler, workerThreads, FrameDispatcher.defaultQueueCapacity(workerThreads));
+    }
+
+    /**
+     * Constructs a server.
+     *
+     * @param port          Port to listen on
+     * @param frameHandler  The handler that answers each frame
+     * @param workerThreads Number of threads handling requests of all connections
+     * @param queueCapacity Number of requests of all connections that may wait for a worker
+     */
+    public SelectorServer(int port, IFrameHandler frameHandler, int workerThreads, int queueCapacity) {
+        this.port = port;
+        this.dispatcher = new FrameDispatcher(frameHandler, workerThreads, queueCapacity, "selector-worker");
+    }
+
+    /**
+     * Opens the listening socket and starts the selector thread.
+     */
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port), 1024);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        System.out.println("Starting server at port = " + port);
+        Thread thread = new Thread(this::run, "selector-server-" + port);
+        thread.start();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and stops the worker threads.
+     */
+    public void stop() {
+        System.out.println("Stopping server");
+        stop = true;
+        if (selector != null)
+            selector.wakeup();
+    }
+
+    /**
+     * Returns the number of client connections currently open.
+     *
+     * @return Number of open connections
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Returns the dispatcher running the requests, for its metrics.
+     *
+     * @return The dispatcher
+     */
+    public FrameDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Body of the selector thread: waits for ready channels and serves them until the server is stopped.
+     */
+    private void run() {
+        try {
+            while (!stop) {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null)
+                    connection.enableWrites();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection client = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable())
+                            client.read();
+                        if (key.isValid() && key.isWritable())
+                            client.write();
+                    } catch (IOException e) {
+                        client.close(); // client is gone or broke the protocol
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            e.printStackTrace();
+        } finally {
+            closeAll();
+        }
+    }
+
+    /**
+     * Accepts every pending connection and registers it for reading.
+     *
+     * @throws IOException If the listening socket fails
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            openConnections.incrementAndGet();
+        }
+    }
+
+    /**
+     * Closes the listening socket, every client connection and the selector, and stops the worker threads.
+     */
+    private void closeAll() {
+        dispatcher.shutdown();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection)
+                ((Connection) key.attachment()).close();
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Encodes a response on a worker thread and queues it for the selector thread.
+     *
+     * @param connection The connection the request came from
+     * @param response   The response frame
+     */
+    private void respond(Connection connection, MazeFrame response) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.getPayload().length + 16);
+        try {
+            response.write(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            response = new MazeFrame(MazeProtocol.ERROR, response.getRequestId(), MazeProtocol.errorMessage(e.getMessage()));
+            bytes.reset();
+            try {
+                response.write(new DataOutputStream(bytes));
+            } catch (IOException impossible) {
+                throw new IllegalStateException(impossible); // cannot happen with an in-memory stream
+            }
+        }
+        connection.send(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * State of one client connection. Apart from {@link #send}, only the selector thread uses it.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private final AtomicLong queuedOutput = new AtomicLong();
+        private final FrameDispatcher.Session session = dispatcher.openSession(response -> respond(this, response), true);
+        private SelectionKey key;
+        private ByteBuffer input = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private boolean preambleRead;
+        private int frameLength; // length of the frame at the head of the input, 0 until it is read
+        private boolean frameRefused; // whether that frame is over the request limit
+        private long discarding; // payload bytes of a refused frame still to be dropped
+        private boolean readPaused;
+        private boolean closed;
+
+        /**
+         * Constructs the state of a newly accepted connection.
+         *
+         * @param channel The client's channel
+         */
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what the client sent and hands every complete frame to the workers.
+         *
+         * @throws IOException If the channel fails or the client breaks the protocol
+         */
+        private void read() throws IOException {
+            int count = channel.read(input);
+            if (count < 0) {
+                close(); // client is gone, drop its requests
+                return;
+            }
+            dispatchFrames();
+        }
+
+        /**
+         * Hands every complete frame in the input buffer to the workers, stopping and pausing reads
+         * if the queued responses grow over {@link #MAX_QUEUED_OUTPUT}.
+         *
+         * @throws IOException If the client breaks the protocol
+         */
+        private void dispatchFrames() throws IOException {
+            input.flip();
+            if (!preambleRead) {
+                if (input.remaining() < Integer.BYTES + 1) {
+                    input.compact();
+                    return;
+                }
+                if (input.getInt() != MazeProtocol.MAGIC)
+                    throw new IOException("Not a maze protocol stream");
+                byte version = input.get();
+                if (version < 1 || version > MazeProtocol.VERSION)
+                    throw new IOException("Unsupported maze protocol version: " + version);
+                preambleRead = true;
+                ByteBuffer preamble = ByteBuffer.allocate(Integer.BYTES + 1).putInt(MazeProtocol.MAGIC).put(MazeProtocol.VERSION);
+                preamble.flip();
+                queuedOutput.addAndGet(preamble.remaining());
+                output.add(preamble);
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            }
+            while (!backlogged()) {
+                if (discarding > 0) {
+                    int dropped = (int) Math.min(discarding, input.remaining());
+                    input.position(input.position() + dropped);
+                    discarding -= dropped;
+                    if (discarding > 0)
+                        break;
+                }
+                if (frameLength == 0) {
+                    if (input.remaining() < Integer.BYTES)
+                        break;
+                    int length = input.getInt(input.position());
+                    if (length < 1 + Long.BYTES || length > MazeProtocol.MAX_FRAME_LENGTH)
+                        throw new IOException("Invalid frame length: " + length);
+                    // decided once per frame, as the limit follows the free heap
+                    frameLength = length;
+                    frameRefused = length > MazeSizeLimits.maxRequestLength();
+                }
+                if (frameRefused) {
+                    if (input.remaining() < Integer.BYTES + 1 + Long.BYTES)
+                        break;
+                    input.getInt();
+                    input.get();
+                    long requestId = input.getLong();
+                    session.reject(requestId, "Frame of " + frameLength + " bytes exceeds the request limit");
+                    discarding = frameLength - 1 - Long.BYTES; // dropped as it arrives, never buffered
+                    frameLength = 0;
+                    continue;
+                }
+                if (input.remaining() < Integer.BYTES + frameLength) {
+                    if (input.remaining() == input.capacity()) {
+                        // the buffer is full of a larger frame: grow it, doubling as the bytes arrive
+                        ByteBuffer larger = ByteBuffer.allocate((int) Math.min(2L * input.capacity(), Integer.BYTES + frameLength));
+                        larger.put(input);
+                        input = larger;
+                        return;
+                    }
+                    break;
+                }
+                input.getInt();
+                byte type = input.get();
+                long requestId = input.getLong();
+                byte[] payload = new byte[frameLength - 1 - Long.BYTES];
+                input.get(payload);
+                frameLength = 0;
+                MazeFrame request = new MazeFrame(type, requestId, payload);
+                session.dispatch(request);
+            }
+            if (!input.hasRemaining() && input.capacity() > READ_BUFFER_SIZE)
+                input = ByteBuffer.allocate(READ_BUFFER_SIZE); // drop the buffer grown for a large frame
+            else
+                input.compact();
+            if (backlogged() && !readPaused) {
+                readPaused = true; // the client does not keep up with its responses
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Tells whether more responses wait to be written than the client may have queued.
+         *
+         * @return true if the queued output is over {@link #MAX_QUEUED_OUTPUT}
+         */
+        private boolean backlogged() {
+            return queuedOutput.get() > MAX_QUEUED_OUTPUT;
+        }
+
+        /**
+         * Queues a response for the selector thread to write. Called by the workers.
+         *
+         * @param response The encoded response frame
+         */
+        private void send(ByteBuffer response) {
+            queuedOutput.addAndGet(response.remaining());
+            output.add(response);
+            pendingWrites.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Starts watching the channel for writability after a worker queued a response.
+         */
+        private void enableWrites() {
+            if (closed || !key.isValid())
+                return;
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+
+        /**
+         * Writes queued responses until they are all written or the socket buffer is full,
+         * and resumes reading once the queue has drained below {@link #MAX_QUEUED_OUTPUT}.
+         *
+         * @throws IOException If the channel fails or the client breaks the protocol
+         */
+        private void write() throws IOException {
+            ByteBuffer next;
+            while ((next = output.peek()) != null) {
+                channel.write(next);
+                if (next.hasRemaining())
+                    break;
+                output.poll();
+                queuedOutput.addAndGet(-next.limit());
+            }
+            if (output.isEmpty())
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            if (readPaused && !backlogged()) {
+                readPaused = false;
+                key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+                dispatchFrames(); // the frames read before the pause
+            }
+        }
+
+        /**
+         * Closes the connection. Requests still queued or running are dropped.
+         */
+        private void close() {
+            if (closed)
+                return;
+            closed = true;
+            session.close();
+            openConnections.decrementAndGet();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package Server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * An immutable snapshot of the server settings in config.properties (threadPoolSize, mazeGeneratingAlgorithm
+ * and mazeSearchingAlgorithm), and the holder of the current one.
+ * <p>
+ * The file is read once, when the settings are first asked for, and the snapshot is kept in memory, so a lookup
+ * never touches the disk. {@link Configurations} rewrites the file with its defaults in its private constructor,
+ * which runs as soon as the class is loaded; this class never writes the file, so edits made by an operator are kept.
+ * After {@link #watch()} a background thread watches the file and swaps in a new snapshot whenever it changes;
+ * the listeners added with {@link #addListener} are then told, so running servers can resize their worker pools.
+ * Readers see either the old or the new snapshot, never a mix.
+ * <p>
+ * The file is resources/config.properties unless the system property {@code maze.config} names another one.
+ * Settings that are missing or malformed keep their defaults.
+ */
+public final class ServerConfiguration {
+    public static final int DEFAULT_THREAD_POOL_SIZE = 5;
+    public static final String DEFAULT_GENERATING_ALGORITHM = "MyMazeGenerator";
+    public static final String DEFAULT_SEARCHING_ALGORITHM = "BreadthFirstSearch";
+    private static final Path FILE = Paths.get(System.getProperty("maze.config", "resources/config.properties")).toAbsolutePath();
+    private static final AtomicReference<ServerConfiguration> current = new AtomicReference<>();
+    private static final List<Consumer<ServerConfiguration>> listeners = new CopyOnWriteArrayList<>();
+    private static Thread watcher;
+    private final int threadPoolSize;
+    private final String generatingAlgorithm;
+    private final String searchingAlgorithm;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param threadPoolSize      Number of worker threads of a server
+     * @param generatingAlgorithm Name of the configured maze generator
+     * @param searchingAlgorithm  Name of the configured searching algorithm
+     */
+    public ServerConfiguration(int threadPoolSize, String generatingAlgorithm, String searchingAlgorithm) {
+        this.threadPoolSize = threadPoolSize;
+        this.generatingAlgorithm = generatingAlgorithm;
+        this.searchingAlgorithm = searchingAlgorithm;
+    }
+
+    /**
+     * Returns the current settings, reading the file if they were never read.
+     *
+     * @return The current snapshot
+     */
+    public static ServerConfiguration current() {
+        ServerConfiguration configuration = current.get();
+        if (configuration == null) {
+            current.compareAndSet(null, read(FILE));
+            configuration = current.get();
+        }
+        return configuration;
+    }
+
+    /**
+     * Reads the file again and swaps in the new settings, telling the listeners if they changed.
+     *
+     * @return The new current snapshot
+     */
+    public static ServerConfiguration reload() {
+        ServerConfiguration configuration = read(FILE);
+        ServerConfiguration previous = current.getAndSet(configuration);
+        if (!configuration.equals(previous)) {
+            for (Consumer<ServerConfiguration> listener : listeners)
+                listener.accept(configuration);
+        }
+        return configuration;
+    }
+
+    /**
+     * Adds a listener told about every new snapshot after a change of the file.
+     * It is called on the watching thread, or on the thread calling {@link #reload()}.
+     *
+     * @param listener Takes the new snapshot
+     */
+    public static void addListener(Consumer<ServerConfiguration> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts watching the file on a background daemon thread, unless it is watched already.
+     */
+    public static synchronized void watch() {
+        if (watcher != null)
+            return;
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            FILE.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            e.printStackTrace(); // keep the settings read at startup
+            return;
+        }
+        current();
+        watcher = new Thread(() -> watchFile(watchService), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Body of the watching thread: reloads the settings whenever the file's directory reports a change to it.
+     *
+     * @param watchService The service the file's directory is registered with
+     */
+    private static void watchFile(WatchService watchService) {
+        try (watchService) {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (FILE.getFileName().equals(event.context()))
+                        changed = true;
+                }
+                if (changed)
+                    reload();
+                if (!key.reset())
+                    return; // the directory is gone
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads a snapshot from a properties file.
+     *
+     * @param file The file
+     * @return The settings in the file, with defaults for those it lacks, or all defaults if it cannot be read
+     */
+    private static ServerConfiguration read(Path file) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            // all defaults
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+        int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+        try {
+            threadPoolSize = Math.max(1, Integer.parseInt(properties.getProperty("threadPoolSize", "").trim()));
+        } catch (NumberFormatException e) {
+            // keep the default
+        }
+        return new ServerConfiguration(threadPoolSize,
+                setting(properties, "mazeGeneratingAlgorithm", DEFAULT_GENERATING_ALGORITHM),
+                setting(properties, "mazeSearchingAlgorithm", DEFAULT_SEARCHING_ALGORITHM));
+    }
+
+    /**
+     * Returns a trimmed setting, or its default if it is missing or blank.
+     *
+     * @param properties   The properties read from the file
+     * @param key          Name of the setting
+     * @param defaultValue Its default
+     * @return The setting
+     */
+    private static String setting(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Returns the number of worker threads a server should run.
+     *
+     * @return Thread pool size, at least 1
+     */
+    public int getThreadPoolSize() {
+        return threadPoolSize;
+    }
+
+    /**
+     * Returns the name of the maze generator used when a request names none.
+     *
+     * @return Generator name
+     */
+    public String getGeneratingAlgorithm() {
+        return generatingAlgorithm;
+    }
+
+    /**
+     * Returns the name of the searching algorithm used when a request names none.
+     *
+     * @return Searching algorithm name
+     */
+    public String getSearchingAlgorithm() {
+        return searchingAlgorithm;
+    }
+
+    /**
+     * Compares all settings.
+     *
+     * @param o Another object
+     * @return true if it is a snapshot with the same settings
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ServerConfiguration))
+            return false;
+        ServerConfiguration other = (ServerConfiguration) o;
+        return threadPoolSize == other.threadPoolSize && generatingAlgorithm.equals(other.generatingAlgorithm)
+                && searchingAlgorithm.equals(other.searchingAlgorithm);
+    }
+
+    /**
+     * Hashes all settings.
+     *
+     * @return The hash code
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(threadPoolSize, generatingAlgorithm, searchingAlgorithm);
+    }
+
+    /**
+     * Returns the settings in one line.
+     *
+     * @return The settings
+     */
+    @Override
+    public String toString() {
+        return "ServerConfiguration[threadPoolSize=" + threadPoolSize + ", generatingAlgorithm=" + generatingAlgorithm
+                + ", searchingAlgorithm=" + searchingAlgorithm + "]";
+    }
+}
@@ -0,0 +1,19 @@
+package Server;
+
+/**
+ * Thrown when a server turns a request away because it has no room for it right now,
+ * e.g. its work queue is full or the maze would not fit in the free heap.
+ * The request may succeed if it is sent again later.
+ */
+public class ServerOverloadedException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message Why the request was turned away
+     */
+    public ServerOverloadedException(String message) {
+        super(message);
+    }
+}
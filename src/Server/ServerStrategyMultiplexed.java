@@ -0,0 +1,248 @@
+package Server;
+
+import IO.FrameTooLargeException;
+import IO.MazeFrame;
+import IO.MazeProtocol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.util.concurrent.Phaser;
+
+/**
+ * Server strategy for persistent connections.
+ * Instead of answering one request and returning, it keeps reading requests tagged with an ID
+ * until the client closes the connection, handles them concurrently and writes every answer
+ * back with the ID of the request it belongs to.
+ * <p>
+ * Clients speak the framed binary protocol ({@link MazeProtocol}). When constructed with an
+ * object handler, the strategy also accepts clients of the older object protocol, where each
+ * request is an ID (long) followed by a serialized object; the protocol is recognized from the
+ * first bytes the client sends.
+ * <p>
+ * Requests wait for a worker in a bounded queue (see {@link FrameDispatcher}); when it is full they are
+ * answered at once with an overload response. Framed requests can carry a deadline and be cancelled,
+ * and the requests of a client that closes its connection are dropped.
+ */
+public class ServerStrategyMultiplexed implements IServerStrategy {
+    private final IRequestHandler objectHandler;
+    private final FrameDispatcher dispatcher;
+
+    /**
+     * Constructs a multiplexed strategy speaking only the framed protocol,
+     * with one worker per available processor.
+     *
+     * @param frameHandler The handler that answers each frame
+     */
+    public ServerStrategyMultiplexed(IFrameHandler frameHandler) {
+        this(frameHandler, null);
+    }
+
+    /**
+     * Constructs a multiplexed strategy with one worker per available processor.
+     *
+     * @param frameHandler  The handler that answers each frame
+     * @param objectHandler The handler that answers object protocol requests, or null to accept framed clients only
+     */
+    public ServerStrategyMultiplexed(IFrameHandler frameHandler, IRequestHandler objectHandler) {
+        this(frameHandler, objectHandler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a multiplexed strategy with the queue capacity of {@link FrameDispatcher#defaultQueueCapacity}.
+     *
+     * @param frameHandler  The handler that answers each frame
+     * @param objectHandler The handler that answers object protocol requests, or null to accept framed clients only
+     * @param workerThreads Number of threads handling requests of all connections
+     */
+    public ServerStrategyMultiplexed(IFrameHandler frameHandler, IRequestHandler objectHandler, int workerThreads) {
+        this(frameHandler, objectHandler, workerThreads, FrameDispatcher.defaultQueueCapacity(workerThreads));
+    }
+
+    /**
+     * Constructs a multiplexed strategy.
+     *
+     * @param frameHandler  The handler that answers each frame
+     * @param objectHandler The handler that answers object protocol requests, or null to accept framed clients only
+     * @param workerThreads Number of threads handling requests of all connections
+     * @param queueCapacity Number of requests of all connections that may wait for a worker
+     */
+    public ServerStrategyMultiplexed(IFrameHandler frameHandler, IRequestHandler objectHandler, int workerThreads, int queueCapacity) {
+        this.objectHandler = objectHandler;
+        this.dispatcher = new FrameDispatcher(frameHandler, workerThreads, queueCapacity, "multiplexed-worker");
+    }
+
+    /**
+     * Reads requests from the client until the connection is closed.
+     * Framed requests still queued or running then are dropped, since nobody waits for their answers;
+     * object requests are answered before this method returns.
+     *
+     * @param inFromClient Stream of requests from the client
+     * @param outToClient  Stream of responses to the client
+     */
+    @Override
+    public void serverStrategy(InputStream inFromClient, OutputStream outToClient) {
+        Phaser inFlight = new Phaser(1);
+        try {
+            BufferedInputStream in = new BufferedInputStream(inFromClient);
+            BufferedOutputStream out = new BufferedOutputStream(outToClient);
+            in.mark(Integer.BYTES);
+            DataInputStream fromClient = new DataInputStream(in);
+            if (fromClient.readInt() == MazeProtocol.MAGIC) {
+                serveFrames(fromClient, new DataOutputStream(out));
+            } else if (objectHandler != null) {
+                in.reset();
+                serveObjects(in, out, inFlight);
+            }
+        } catch (EOFException | SocketException e) {
+            // client closed the connection
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            inFlight.arriveAndAwaitAdvance();
+        }
+    }
+
+    /**
+     * Serves a client of the framed protocol. The magic number has already been read.
+     */
+    private void serveFrames(DataInputStream fromClient, DataOutputStream toClient) throws IOException {
+        MazeProtocol.readVersion(fromClient);
+        MazeProtocol.writePreamble(toClient);
+        toClient.flush();
+        FrameDispatcher.Session session = dispatcher.openSession(response -> respond(toClient, response), false);
+        try {
+            while (true) {
+                try {
+                    session.dispatch(MazeFrame.read(fromClient, MazeSizeLimits.maxRequestLength()));
+                } catch (FrameTooLargeException e) {
+                    session.reject(e.getRequestId(), e.getMessage()); // the payload was skipped, the connection goes on
+                }
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Writes a response frame to the client. If writing fails, the connection is closed: a streamed frame
+     * whose payload failed after its header was written would leave every later frame misread by the client.
+     *
+     * @param toClient Shared stream to the client
+     * @param response The response frame
+     */
+    private void respond(DataOutputStream toClient, MazeFrame response) {
+        synchronized (toClient) {
+            try {
+                response.write(toClient);
+                toClient.flush();
+            } catch (IOException | RuntimeException e) {
+                abandon(toClient); // client is gone, or the frame was cut short
+            }
+        }
+    }
+
+    /**
+     * Closes a connection whose stream can no longer be trusted, which also ends the loop reading its requests.
+     *
+     * @param toClient Stream to the client
+     */
+    private static void abandon(OutputStream toClient) {
+        try {
+            toClient.close();
+        } catch (IOException e) {
+            // already broken
+        }
+    }
+
+    /**
+     * Serves a client of the object protocol.
+     */
+    private void serveObjects(InputStream in, OutputStream out, Phaser inFlight) throws IOException, ClassNotFoundException {
+        ObjectOutputStream toClient = new ObjectOutputStream(out);
+        toClient.flush();
+        ObjectInputStream fromClient = new ObjectInputStream(in);
+        while (true) {
+            long requestId = fromClient.readLong();
+            Object request = fromClient.readObject();
+            inFlight.register();
+            boolean queued = dispatcher.tryExecute(() -> {
+                try {
+                    respond(toClient, requestId, request);
+                } finally {
+                    inFlight.arriveAndDeregister();
+                }
+            });
+            if (!queued) {
+                inFlight.arriveAndDeregister();
+                write(toClient, requestId, false, "Server overloaded: too many requests queued");
+            }
+        }
+    }
+
+    /**
+     * Handles one object request and writes its response (or error message) to the client.
+     *
+     * @param toClient  Shared stream to the client
+     * @param requestId ID of the request being answered
+     * @param request   The request object
+     */
+    private void respond(ObjectOutputStream toClient, long requestId, Object request) {
+        boolean success;
+        Object response;
+        try {
+            response = objectHandler.handle(request);
+            success = true;
+        } catch (Exception e) {
+            response = String.valueOf(e.getMessage());
+            success = false;
+        }
+        write(toClient, requestId, success, response);
+    }
+
+    /**
+     * Writes the answer to an object request.
+     *
+     * @param toClient  Shared stream to the client
+     * @param requestId ID of the request being answered
+     * @param success   Whether the request was handled
+     * @param response  The response object, or the error message
+     */
+    private void write(ObjectOutputStream toClient, long requestId, boolean success, Object response) {
+        synchronized (toClient) {
+            try {
+                toClient.writeLong(requestId);
+                toClient.writeBoolean(success);
+                toClient.writeObject(response);
+                toClient.reset();
+                toClient.flush();
+            } catch (IOException | RuntimeException e) {
+                abandon(toClient); // client is gone, or the object was cut short
+            }
+        }
+    }
+
+    /**
+     * Returns the dispatcher running the requests, for its metrics.
+     *
+     * @return The dispatcher
+     */
+    public FrameDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Stops the worker threads of this strategy.
+     */
+    public void stop() {
+        dispatcher.shutdown();
+    }
+}
@@ -0,0 +1,392 @@
+package Server;
+
+import IO.MazeEncoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of encoded solutions, kept in front of the persistent {@link SolutionStore}.
+ * Entries are weighted by their size in bytes and the least recently used ones are evicted
+ * once the total weight exceeds the budget.
+ * <p>
+ * Mazes are keyed by their dimensions, start and goal positions and a SHA-256 digest of their
+ * compressed encoding and the name of the searching algorithm, so two different requests never share an entry.
+ * A request that names no algorithm is keyed with the configured one, so after the configuration changes
+ * it is not answered with a solution of the previous algorithm.
+ * Mazes generated from a seed can instead be keyed by their seed record, which is digested in place
+ * of the whole maze.
+ * <p>
+ * Concurrent misses on the same key share one solve: the first request solves the maze and the others wait for its
+ * solution. If that solve fails, for instance because its request was cancelled, each waiting request tries again.
+ */
+public class SolutionCache {
+    private static final int ENTRY_OVERHEAD = 128; // key, map entry and array headers
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<Key, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final SolutionStore store;
+    private long totalBytes;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxBytes Maximum total weight of the cached entries, in bytes
+     */
+    public SolutionCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Constructs an empty cache backed by a persistent store.
+     * Memory misses are looked up in the store, and new solutions are written to both.
+     *
+     * @param maxBytes Maximum total weight of the cached entries, in bytes
+     * @param store    Persistent tier below the cache, or null for none
+     */
+    public SolutionCache(long maxBytes, SolutionStore store) {
+        this.maxBytes = maxBytes;
+        this.store = store;
+    }
+
+    /**
+     * Returns the cached solution of a maze. On a miss the persistent store is consulted,
+     * and only if it does not have the solution either is the maze solved and stored in both tiers.
+     * The solver runs outside the cache lock, so concurrent misses on different mazes do not wait on each other,
+     * while concurrent misses on the same maze wait for a single solve.
+     *
+     * @param encodedMaze The maze in MyCompressorOutputStream format, optionally followed by an algorithm name
+     * @param solver      Produces the encoded solution on a miss
+     * @return The encoded solution
+     * @throws Exception If the solver failed
+     */
+    public byte[] getOrSolve(byte[] encodedMaze, Callable<byte[]> solver) throws Exception {
+        return getOrSolve(Key.of(encodedMaze), solver);
+    }
+
+    /**
+     * Returns the cached solution for a key, as {@link #getOrSolve(byte[], Callable)} does for an encoded maze.
+     *
+     * @param key    The maze key
+     * @param solver Produces the encoded solution on a miss
+     * @return The encoded solution
+     * @throws Exception If the solver failed, or the thread was interrupted while waiting for another request's solve
+     */
+    public byte[] getOrSolve(Key key, Callable<byte[]> solver) throws Exception {
+        byte[] solution = get(key);
+        if (solution != null)
+            return solution;
+        while (true) {
+            CompletableFuture<byte[]> flight = new CompletableFuture<>();
+            CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, flight);
+            if (running == null)
+                return solve(key, solver, flight);
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                // the request that solved failed, possibly only because it was cancelled: try again
+            }
+        }
+    }
+
+    /**
+     * Solves a maze on behalf of every request that misses on its key meanwhile, unless a solve that just
+     * finished already cached it, and completes the shared future.
+     *
+     * @param key    The maze key
+     * @param solver Produces the encoded solution
+     * @param flight The future the other requests wait for
+     * @return The encoded solution
+     * @throws Exception If the solver failed
+     */
+    private byte[] solve(Key key, Callable<byte[]> solver, CompletableFuture<byte[]> flight) throws Exception {
+        try {
+            byte[] solution;
+            synchronized (entries) {
+                solution = entries.get(key);
+            }
+            if (solution == null && store != null)
+                solution = readFromStore(key);
+            if (solution == null) {
+                solution = solver.call();
+                writeToStore(key, solution);
+            }
+            put(key, solution);
+            flight.complete(solution);
+            return solution;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Looks up a solution in the persistent store. A failing store is treated as a miss.
+     *
+     * @param key The maze key
+     * @return The encoded solution, or null if it is not stored
+     */
+    private byte[] readFromStore(Key key) {
+        try {
+            return store.get(key);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes a solution to the persistent store, if there is one.
+     *
+     * @param key      The maze key
+     * @param solution The encoded solution
+     */
+    private void writeToStore(Key key, byte[] solution) {
+        if (store == null)
+            return;
+        try {
+            store.put(key, solution);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Looks up a solution and marks it as recently used.
+     *
+     * @param key The maze key
+     * @return The encoded solution, or null if it is not cached
+     */
+    public byte[] get(Key key) {
+        byte[] solution;
+        synchronized (entries) {
+            solution = entries.get(key);
+        }
+        (solution != null ? hits : misses).incrementAndGet();
+        return solution;
+    }
+
+    /**
+     * Caches a solution, evicting least recently used entries to stay within the budget.
+     * Solutions larger than the whole budget are not cached.
+     *
+     * @param key      The maze key
+     * @param solution The encoded solution
+     */
+    public void put(Key key, byte[] solution) {
+        long weight = weight(solution);
+        if (weight > maxBytes)
+            return;
+        synchronized (entries) {
+            byte[] previous = entries.put(key, solution);
+            if (previous != null)
+                totalBytes -= weight(previous);
+            totalBytes += weight;
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= weight(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the memory an entry is accounted for.
+     *
+     * @param solution The encoded solution
+     * @return Weight in bytes
+     */
+    private static long weight(byte[] solution) {
+        return solution.length + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached solution.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a cached solution.
+     *
+     * @return Number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of cached solutions.
+     *
+     * @return Number of entries
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the total weight of the cached solutions.
+     *
+     * @return Weight in bytes
+     */
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    /**
+     * Identifies a maze and its solver: the maze's dimensions, start and goal positions and a SHA-256 digest
+     * of its encoding and the name of the searching algorithm.
+     */
+    public static class Key {
+        static final int DIGEST_SIZE = 32;
+        static final int SIZE = 24 + DIGEST_SIZE;
+        private final int rows;
+        private final int cols;
+        private final int startRow;
+        private final int startCol;
+        private final int goalRow;
+        private final int goalCol;
+        private final byte[] digest;
+
+        /**
+         * Constructs a key.
+         *
+         * @param header The six header ints: rows, cols, start row, start col, goal row, goal col
+         * @param digest SHA-256 digest of the encoded maze
+         */
+        private Key(ByteBuffer header, byte[] digest) {
+            this.rows = header.getInt();
+            this.cols = header.getInt();
+            this.startRow = header.getInt();
+            this.startCol = header.getInt();
+            this.goalRow = header.getInt();
+            this.goalCol = header.getInt();
+            this.digest = digest;
+        }
+
+        /**
+         * Builds the key of an encoded maze. If no algorithm name follows the maze, the configured searching
+         * algorithm is digested in its place, so the key is that of a request naming it.
+         *
+         * @param encodedMaze The maze in MyCompressorOutputStream format, optionally followed by an algorithm name
+         * @return The maze key
+         * @throws IllegalArgumentException If the encoding is shorter than the maze header
+         */
+        public static Key of(byte[] encodedMaze) {
+            if (encodedMaze.length < 24)
+                throw new IllegalArgumentException("Encoded maze is shorter than its header");
+            ByteBuffer header = ByteBuffer.wrap(encodedMaze, 0, 24);
+            long mazeLength = Math.min(encodedMaze.length, Math.max(24, MazeEncoder.encodedSize(header.getInt(0), header.getInt(4))));
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(encodedMaze, 0, (int) mazeLength);
+                if (mazeLength < encodedMaze.length)
+                    digest.update(encodedMaze, (int) mazeLength, encodedMaze.length - (int) mazeLength);
+                else
+                    digest.update(AlgorithmRegistry.getConfiguredSolver().getBytes(StandardCharsets.UTF_8));
+                return new Key(header, digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e); // every Java platform provides SHA-256
+            }
+        }
+
+        /**
+         * Builds the key of a maze generated from a seed. Only the maze header is read; the digest covers
+         * the seed record and the searching algorithm, which identify the maze and its solution.
+         * The record starts with a magic number no compressed maze starts with, so the key cannot collide
+         * with the key of an encoded maze.
+         *
+         * @param encodedMaze The maze in MyCompressorOutputStream format
+         * @param seedRecord  The maze's seed record
+         * @param algorithm   Name of the searching algorithm, or null for the configured one
+         * @return The maze key
+         * @throws IllegalArgumentException If the encoding is shorter than the maze header
+         */
+        public static Key ofSeed(byte[] encodedMaze, byte[] seedRecord, String algorithm) {
+            if (encodedMaze.length < 24)
+                throw new IllegalArgumentException("Encoded maze is shorter than its header");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(seedRecord);
+                digest.update((algorithm != null ? algorithm : AlgorithmRegistry.getConfiguredSolver()).getBytes(StandardCharsets.UTF_8));
+                return new Key(ByteBuffer.wrap(encodedMaze, 0, 24), digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e); // every Java platform provides SHA-256
+            }
+        }
+
+        /**
+         * Reads a key written by {@link #writeTo}.
+         *
+         * @param buffer Buffer positioned at the key; its position is advanced past it
+         * @return The key
+         */
+        static Key readFrom(ByteBuffer buffer) {
+            ByteBuffer header = buffer.duplicate();
+            byte[] digest = new byte[DIGEST_SIZE];
+            buffer.position(buffer.position() + 24);
+            buffer.get(digest);
+            return new Key(header, digest);
+        }
+
+        /**
+         * Writes the key as its six header ints followed by the digest ({@link #SIZE} bytes).
+         *
+         * @param buffer Destination buffer
+         */
+        void writeTo(ByteBuffer buffer) {
+            buffer.putInt(rows).putInt(cols).putInt(startRow).putInt(startCol).putInt(goalRow).putInt(goalCol).put(digest);
+        }
+
+        /**
+         * Compares the dimensions, positions and digest of two keys.
+         *
+         * @param o The other object
+         * @return true if both keys identify the same maze
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return rows == other.rows && cols == other.cols
+                    && startRow == other.startRow && startCol == other.startCol
+                    && goalRow == other.goalRow && goalCol == other.goalCol
+                    && Arrays.equals(digest, other.digest);
+        }
+
+        /**
+         * Returns a hash code taken from the digest, which is already uniformly distributed.
+         *
+         * @return The hash code
+         */
+        @Override
+        public int hashCode() {
+            return ByteBuffer.wrap(digest).getInt();
+        }
+    }
+}
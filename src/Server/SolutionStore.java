@@ -0,0 +1,645 @@
+package Server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent, size-bounded store of encoded solutions, keyed by {@link SolutionCache.Key}.
+ * <p>
+ * Solutions are appended to a data file; each record is: value length (int), CRC32 of key and
+ * value (int), write time (int, seconds), the key and the value. A memory-mapped hash index
+ * (open addressing, linear probing) maps keys to record offsets and remembers when and in which
+ * order the entries were last read. When the data file would exceed the byte budget, expired and least recently used
+ * entries are dropped and the survivors are copied to a new data file, which then atomically
+ * replaces the old one.
+ * <p>
+ * The index is marked clean only when the store is closed. After a crash it is rebuilt by scanning
+ * the data file, which stops at the first torn or corrupt record and cuts the file there.
+ * <p>
+ * A store holds an exclusive lock on its index file while it is open, so only one store, in one process,
+ * uses a directory at a time; opening a store whose directory is in use fails. Stores of the same process
+ * are kept apart before the file is even opened, because closing any channel to a locked file may release
+ * the locks the process holds on it.
+ */
+public class SolutionStore implements Closeable {
+    private static final int DATA_MAGIC = 0x4D5A5344; // "MZSD"
+    private static final int INDEX_MAGIC = 0x4D5A5349; // "MZSI"
+    private static final int VERSION = 1;
+    private static final int DATA_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 12 + SolutionCache.Key.SIZE;
+    private static final int MAX_VALUE_LENGTH = 1 << 30;
+
+    // index header: magic, version, capacity, clean flag, data length, live bytes, entry count, access clock
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int CLEAN_OFFSET = 12;
+    private static final int DATA_LENGTH_OFFSET = 16;
+    private static final int LIVE_BYTES_OFFSET = 24;
+    private static final int COUNT_OFFSET = 32;
+    private static final int CLOCK_OFFSET = 40;
+    private static final int INDEX_HEADER_SIZE = 48;
+    // index slot: record offset (0 = empty), key hash, last access time (seconds), last access (clock tick)
+    private static final int SLOT_HASH = 8;
+    private static final int SLOT_ACCESS_TIME = 12;
+    private static final int SLOT_ACCESS_TICK = 16;
+    private static final int SLOT_SIZE = 24;
+    private static final int MIN_CAPACITY = 1024;
+    private static final long EPOCH_SECONDS = 1_600_000_000L;
+    private static final Set<Path> openDirectories = ConcurrentHashMap.newKeySet();
+
+    private final Path directory;
+    private final Path dataPath;
+    private final Path indexPath;
+    private final Path compactPath;
+    private final long maxBytes;
+    private final long maxAgeSeconds;
+    private FileChannel data;
+    private final FileChannel indexFile;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int count;
+    private long dataLength;
+    private long liveBytes;
+    private long clock;
+
+    /**
+     * Opens the store in the given directory, creating it if needed.
+     * An index that was not closed cleanly is rebuilt from the data file.
+     *
+     * @param directory Directory holding the data and index files
+     * @param maxBytes  Maximum size of the data file, in bytes
+     * @param maxAge    Entries not read for longer than this are evicted at the next compaction
+     * @throws IOException If the files could not be opened, or another store has the directory open
+     */
+    public SolutionStore(Path directory, long maxBytes, Duration maxAge) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory.toRealPath();
+        this.dataPath = directory.resolve("solutions.dat");
+        this.indexPath = directory.resolve("solutions.idx");
+        this.compactPath = directory.resolve("solutions.dat.compact");
+        this.maxBytes = maxBytes;
+        this.maxAgeSeconds = maxAge.getSeconds();
+        if (!openDirectories.add(this.directory))
+            throw new IOException("Solution store " + directory + " is already open in this process");
+        try {
+            indexFile = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            openDirectories.remove(this.directory);
+            throw e;
+        }
+        try {
+            lock(indexFile, directory); // before any file is changed; released when the index is closed
+            Files.deleteIfExists(compactPath); // left over by a compaction that did not finish
+            data = openData(dataPath);
+            if (!loadIndex())
+                rebuildIndex();
+            index.putInt(CLEAN_OFFSET, 0);
+            index.force();
+            if (dataLength > maxBytes || hasExpiredEntries())
+                compact(maxBytes * 3 / 4);
+        } catch (IOException | RuntimeException e) {
+            if (data != null)
+                data.close();
+            indexFile.close();
+            openDirectories.remove(this.directory);
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up a solution and records the access for LRU eviction.
+     *
+     * @param key The maze key
+     * @return The encoded solution, or null if it is not stored
+     * @throws IOException If reading the data file fails
+     */
+    public synchronized byte[] get(SolutionCache.Key key) throws IOException {
+        int slot = findSlot(key, keyBytes(key));
+        if (slot < 0)
+            return null;
+        byte[] value = readValue(slotOffset(slot));
+        if (value != null)
+            touch(slot);
+        return value;
+    }
+
+    /**
+     * Appends a solution, compacting the data file first if it would exceed the budget.
+     * Solutions larger than the whole budget are not stored.
+     *
+     * @param key   The maze key
+     * @param value The encoded solution
+     * @throws IOException If writing the data file fails
+     */
+    public synchronized void put(SolutionCache.Key key, byte[] value) throws IOException {
+        long recordSize = RECORD_HEADER_SIZE + value.length;
+        if (recordSize > maxBytes)
+            return;
+        if (dataLength + recordSize > maxBytes)
+            compact(Math.max(0, maxBytes * 3 / 4 - recordSize));
+
+        byte[] keyBytes = keyBytes(key);
+        int slot = findSlot(key, keyBytes);
+        ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+        record.putInt(value.length).putInt(checksum(keyBytes, value)).putInt(now()).put(keyBytes).put(value).flip();
+        long offset = dataLength;
+        writeFully(data, record, offset);
+        dataLength += recordSize;
+        liveBytes += recordSize;
+        if (slot >= 0) {
+            liveBytes -= recordSize(slotOffset(slot));
+            index.putLong(slotPosition(slot), offset);
+            touch(slot);
+        } else {
+            insert(-slot - 1, new Entry(offset, key.hashCode(), now(), ++clock));
+            count++;
+        }
+        writeIndexHeader();
+        if (count > capacity * 7L / 10)
+            resizeIndex(capacity * 2, collectEntries());
+    }
+
+    /**
+     * Returns the number of stored solutions.
+     *
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Returns the size of the data file, including records that were replaced but not yet compacted away.
+     *
+     * @return Size in bytes
+     */
+    public synchronized long getDataBytes() {
+        return dataLength;
+    }
+
+    /**
+     * Returns the total size of the records still referenced by the index.
+     *
+     * @return Size in bytes
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Flushes both files and marks the index clean.
+     *
+     * @throws IOException If flushing fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        data.force(true);
+        data.close();
+        writeIndexHeader();
+        index.putInt(CLEAN_OFFSET, 1);
+        index.force();
+        indexFile.close();
+        openDirectories.remove(directory);
+    }
+
+    /**
+     * Takes the exclusive lock on an index file.
+     *
+     * @param indexFile The open index file
+     * @param directory Directory of the store, for the error message
+     * @throws IOException If locking fails or another process holds the lock
+     */
+    private static void lock(FileChannel indexFile, Path directory) throws IOException {
+        FileLock lock = indexFile.tryLock();
+        if (lock == null)
+            throw new IOException("Solution store " + directory + " is in use by another process");
+    }
+
+    /**
+     * Opens a data file, starting a new one if it is missing or not a solution store.
+     *
+     * @param path Path of the data file
+     * @return The open channel
+     * @throws IOException If the file could not be opened
+     */
+    private static FileChannel openData(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+        if (channel.size() >= DATA_HEADER_SIZE) {
+            channel.read(header, 0);
+            if (header.getInt(0) == DATA_MAGIC && header.getInt(4) == VERSION)
+                return channel;
+        }
+        channel.truncate(0);
+        header.clear();
+        header.putInt(DATA_MAGIC).putInt(VERSION).flip();
+        writeFully(channel, header, 0);
+        return channel;
+    }
+
+    /**
+     * Maps the index file if it was closed cleanly and matches the data file.
+     *
+     * @return true if the index can be used as-is
+     * @throws IOException If reading the index fails
+     */
+    private boolean loadIndex() throws IOException {
+        if (indexFile.size() < INDEX_HEADER_SIZE)
+            return false;
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+        indexFile.read(header, 0);
+        int storedCapacity = header.getInt(CAPACITY_OFFSET);
+        if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != VERSION || header.getInt(CLEAN_OFFSET) != 1
+                || storedCapacity < MIN_CAPACITY || Integer.bitCount(storedCapacity) != 1
+                || indexFile.size() < INDEX_HEADER_SIZE + (long) storedCapacity * SLOT_SIZE
+                || header.getLong(DATA_LENGTH_OFFSET) != data.size())
+            return false;
+        capacity = storedCapacity;
+        index = indexFile.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        dataLength = index.getLong(DATA_LENGTH_OFFSET);
+        liveBytes = index.getLong(LIVE_BYTES_OFFSET);
+        count = index.getInt(COUNT_OFFSET);
+        clock = index.getLong(CLOCK_OFFSET);
+        return true;
+    }
+
+    /**
+     * Rebuilds the index by scanning the data file. The scan stops at the first record that is
+     * incomplete or fails its checksum, and the data file is cut there. Later records of a key
+     * replace earlier ones.
+     *
+     * @throws IOException If reading the data file fails
+     */
+    private void rebuildIndex() throws IOException {
+        Map<SolutionCache.Key, long[]> latest = new HashMap<>();
+        long offset = DATA_HEADER_SIZE;
+        long size = data.size();
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            recordHeader.clear();
+            readFully(data, recordHeader, offset);
+            recordHeader.flip();
+            int valueLength = recordHeader.getInt();
+            int crc = recordHeader.getInt();
+            int writtenAt = recordHeader.getInt();
+            if (valueLength < 0 || valueLength > MAX_VALUE_LENGTH || offset + RECORD_HEADER_SIZE + valueLength > size)
+                break;
+            byte[] keyBytes = new byte[SolutionCache.Key.SIZE];
+            recordHeader.get(keyBytes);
+            ByteBuffer value = ByteBuffer.allocate(valueLength);
+            readFully(data, value, offset + RECORD_HEADER_SIZE);
+            if (checksum(keyBytes, value.array()) != crc)
+                break;
+            latest.put(SolutionCache.Key.readFrom(ByteBuffer.wrap(keyBytes)), new long[]{offset, writtenAt});
+            offset += RECORD_HEADER_SIZE + valueLength;
+        }
+        data.truncate(offset);
+        dataLength = offset;
+
+        List<Entry> entries = new ArrayList<>(latest.size());
+        liveBytes = 0;
+        for (Map.Entry<SolutionCache.Key, long[]> record : latest.entrySet()) {
+            long recordOffset = record.getValue()[0];
+            entries.add(new Entry(recordOffset, record.getKey().hashCode(), (int) record.getValue()[1], 0));
+            liveBytes += recordSize(recordOffset);
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.offset));
+        clock = 0;
+        for (Entry entry : entries)
+            entry.tick = ++clock; // access order is lost, write order is the best guess
+        int newCapacity = MIN_CAPACITY;
+        while (entries.size() > newCapacity * 7L / 10)
+            newCapacity *= 2;
+        resizeIndex(newCapacity, entries);
+    }
+
+    /**
+     * Drops expired entries, then the least recently used ones until the live records fit in
+     * {@code targetBytes}, and rewrites the data file with the survivors only.
+     * The new data file is written and synced under a temporary name before it replaces the old one.
+     *
+     * @param targetBytes Maximum size of the surviving records
+     * @throws IOException If rewriting the data file fails
+     */
+    private void compact(long targetBytes) throws IOException {
+        List<Entry> entries = collectEntries();
+        entries.sort(Comparator.comparingLong(entry -> entry.tick));
+        int expiredBefore = now() - (int) Math.min(maxAgeSeconds, Integer.MAX_VALUE);
+        long keptBytes = 0;
+        for (Entry entry : entries)
+            keptBytes += recordSize(entry.offset);
+        List<Entry> survivors = new ArrayList<>();
+        for (Entry entry : entries) {
+            long size = recordSize(entry.offset);
+            if (entry.lastAccess < expiredBefore || keptBytes > targetBytes)
+                keptBytes -= size;
+            else
+                survivors.add(entry);
+        }
+        survivors.sort(Comparator.comparingLong(entry -> entry.offset));
+
+        long newLength = DATA_HEADER_SIZE;
+        try (FileChannel compacted = FileChannel.open(compactPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE).putInt(DATA_MAGIC).putInt(VERSION);
+            header.flip();
+            writeFully(compacted, header, 0);
+            compacted.position(DATA_HEADER_SIZE);
+            for (Entry entry : survivors) {
+                long size = recordSize(entry.offset);
+                for (long copied = 0; copied < size; )
+                    copied += data.transferTo(entry.offset + copied, size - copied, compacted);
+                entry.offset = newLength;
+                newLength += size;
+            }
+            compacted.force(true);
+        }
+        data.close();
+        Files.move(compactPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        data = FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        dataLength = newLength;
+        liveBytes = keptBytes;
+        resizeIndex(capacity, survivors);
+    }
+
+    /**
+     * Returns whether any entry was last read longer ago than the maximum age.
+     *
+     * @return true if there are expired entries
+     */
+    private boolean hasExpiredEntries() {
+        int expiredBefore = now() - (int) Math.min(maxAgeSeconds, Integer.MAX_VALUE);
+        for (int slot = 0; slot < capacity; slot++) {
+            if (slotOffset(slot) != 0 && index.getInt(slotPosition(slot) + SLOT_ACCESS_TIME) < expiredBefore)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lists the entries of the index.
+     *
+     * @return One entry per occupied slot
+     */
+    private List<Entry> collectEntries() {
+        List<Entry> entries = new ArrayList<>(count);
+        for (int slot = 0; slot < capacity; slot++) {
+            long offset = slotOffset(slot);
+            if (offset != 0) {
+                int position = slotPosition(slot);
+                entries.add(new Entry(offset, index.getInt(position + SLOT_HASH), index.getInt(position + SLOT_ACCESS_TIME), index.getLong(position + SLOT_ACCESS_TICK)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Maps the index with the given capacity and fills it with the given entries.
+     *
+     * @param newCapacity Number of slots, a power of two
+     * @param entries     The entries to insert
+     * @throws IOException If mapping the index fails
+     */
+    private void resizeIndex(int newCapacity, List<Entry> entries) throws IOException {
+        long indexSize = INDEX_HEADER_SIZE + (long) newCapacity * SLOT_SIZE;
+        if (index == null || newCapacity != capacity)
+            index = indexFile.map(FileChannel.MapMode.READ_WRITE, 0, indexSize);
+        capacity = newCapacity;
+        byte[] zeros = new byte[SLOT_SIZE * 256];
+        index.position(INDEX_HEADER_SIZE);
+        while (index.hasRemaining())
+            index.put(zeros, 0, Math.min(zeros.length, index.remaining()));
+        for (Entry entry : entries) {
+            int slot = entry.hash & (capacity - 1);
+            while (slotOffset(slot) != 0)
+                slot = (slot + 1) & (capacity - 1);
+            insert(slot, entry);
+        }
+        count = entries.size();
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, VERSION);
+        index.putInt(CAPACITY_OFFSET, capacity);
+        writeIndexHeader();
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key      The maze key
+     * @param keyBytes The key as written in records
+     * @return The slot holding the key, or -(first empty slot) - 1 if the key is not in the index
+     * @throws IOException If reading a record's key fails
+     */
+    private int findSlot(SolutionCache.Key key, byte[] keyBytes) throws IOException {
+        int hash = key.hashCode();
+        int slot = hash & (capacity - 1);
+        ByteBuffer storedKey = ByteBuffer.allocate(SolutionCache.Key.SIZE);
+        while (true) {
+            long offset = slotOffset(slot);
+            if (offset == 0)
+                return -slot - 1;
+            if (index.getInt(slotPosition(slot) + SLOT_HASH) == hash) {
+                storedKey.clear();
+                readFully(data, storedKey, offset + 12);
+                if (Arrays.equals(storedKey.array(), keyBytes))
+                    return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    /**
+     * Reads and verifies the value of a record.
+     *
+     * @param offset Offset of the record in the data file
+     * @return The value, or null if the record fails its checksum
+     * @throws IOException If reading the data file fails
+     */
+    private byte[] readValue(long offset) throws IOException {
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(data, recordHeader, offset);
+        int valueLength = recordHeader.getInt(0);
+        if (valueLength < 0 || valueLength > MAX_VALUE_LENGTH || offset + RECORD_HEADER_SIZE + valueLength > dataLength)
+            return null;
+        ByteBuffer value = ByteBuffer.allocate(valueLength);
+        readFully(data, value, offset + RECORD_HEADER_SIZE);
+        byte[] keyBytes = Arrays.copyOfRange(recordHeader.array(), 12, RECORD_HEADER_SIZE);
+        if (checksum(keyBytes, value.array()) != recordHeader.getInt(4))
+            return null;
+        return value.array();
+    }
+
+    /**
+     * Returns the size of a record, header included.
+     *
+     * @param offset Offset of the record in the data file
+     * @return Size in bytes
+     * @throws IOException If reading the data file fails
+     */
+    private long recordSize(long offset) throws IOException {
+        ByteBuffer valueLength = ByteBuffer.allocate(4);
+        readFully(data, valueLength, offset);
+        return RECORD_HEADER_SIZE + valueLength.getInt(0);
+    }
+
+    /**
+     * Fills an index slot.
+     *
+     * @param slot  The slot
+     * @param entry The entry to store in it
+     */
+    private void insert(int slot, Entry entry) {
+        int position = slotPosition(slot);
+        index.putLong(position, entry.offset);
+        index.putInt(position + SLOT_HASH, entry.hash);
+        index.putInt(position + SLOT_ACCESS_TIME, entry.lastAccess);
+        index.putLong(position + SLOT_ACCESS_TICK, entry.tick);
+    }
+
+    /**
+     * Marks a slot as the most recently used one.
+     *
+     * @param slot The slot
+     */
+    private void touch(int slot) {
+        int position = slotPosition(slot);
+        index.putInt(position + SLOT_ACCESS_TIME, now());
+        index.putLong(position + SLOT_ACCESS_TICK, ++clock);
+    }
+
+    /**
+     * Writes the counters to the index header.
+     */
+    private void writeIndexHeader() {
+        index.putLong(DATA_LENGTH_OFFSET, dataLength);
+        index.putLong(LIVE_BYTES_OFFSET, liveBytes);
+        index.putInt(COUNT_OFFSET, count);
+        index.putLong(CLOCK_OFFSET, clock);
+    }
+
+    /**
+     * Returns the record offset stored in a slot.
+     *
+     * @param slot The slot
+     * @return The offset, or 0 if the slot is empty
+     */
+    private long slotOffset(int slot) {
+        return index.getLong(slotPosition(slot));
+    }
+
+    /**
+     * Returns the position of a slot in the index.
+     *
+     * @param slot The slot
+     * @return Byte position in the mapped index
+     */
+    private static int slotPosition(int slot) {
+        return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Serializes a key as it is written in records.
+     *
+     * @param key The maze key
+     * @return The key bytes
+     */
+    private static byte[] keyBytes(SolutionCache.Key key) {
+        ByteBuffer buffer = ByteBuffer.allocate(SolutionCache.Key.SIZE);
+        key.writeTo(buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Computes the checksum of a record's key and value.
+     *
+     * @param keyBytes The key bytes
+     * @param value    The value
+     * @return The CRC32 of both
+     */
+    private static int checksum(byte[] keyBytes, byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Returns the current time in the resolution kept by the index.
+     *
+     * @return Seconds since {@link #EPOCH_SECONDS}
+     */
+    private static int now() {
+        return (int) (System.currentTimeMillis() / 1000 - EPOCH_SECONDS);
+    }
+
+    /**
+     * Reads until the buffer is full.
+     *
+     * @param channel  Source file
+     * @param buffer   Destination buffer
+     * @param position File position to read from
+     * @throws IOException If the file ends first or reading fails
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Unexpected end of solution store");
+            position += read;
+        }
+    }
+
+    /**
+     * Writes the whole buffer.
+     *
+     * @param channel  Destination file
+     * @param buffer   Source buffer
+     * @param position File position to write at
+     * @throws IOException If writing fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    /**
+     * The contents of an index slot, used while rebuilding the index.
+     */
+    private static class Entry {
+        private long offset;
+        private final int hash;
+        private final int lastAccess;
+        private long tick;
+
+        /**
+         * Constructs an entry.
+         *
+         * @param offset     Offset of the record in the data file
+         * @param hash       Hash code of the record's key
+         * @param lastAccess Time of the last read, in seconds since {@link #EPOCH_SECONDS}
+         * @param tick       Value of the access clock at the last read
+         */
+        private Entry(long offset, int hash, int lastAccess, long tick) {
+            this.offset = offset;
+            this.hash = hash;
+            this.lastAccess = lastAccess;
+            this.tick = tick;
+        }
+    }
+}
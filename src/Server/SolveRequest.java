@@ -0,0 +1,44 @@
+package Server;
+
+import algorithms.mazeGenerators.Maze;
+
+import java.io.Serializable;
+
+/**
+ * A solve request naming the searching algorithm to use.
+ * Handlers that accept it also accept a plain {@link Maze}, which is solved with the server's algorithm.
+ */
+public class SolveRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final Maze maze;
+    private final String algorithm;
+
+    /**
+     * Constructs a request.
+     *
+     * @param maze      The maze to solve
+     * @param algorithm Name of a solver in {@link AlgorithmRegistry}, or null for the server's choice
+     */
+    public SolveRequest(Maze maze, String algorithm) {
+        this.maze = maze;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Returns the maze to solve.
+     *
+     * @return The maze
+     */
+    public Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Returns the name of the requested searching algorithm.
+     *
+     * @return The algorithm name, or null for the server's choice
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+}
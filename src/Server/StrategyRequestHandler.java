@@ -0,0 +1,43 @@
+package Server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Adapts an existing one-shot {@link IServerStrategy} to the {@link IRequestHandler} interface
+ * by running it against in-memory streams, so its behavior is kept as-is on persistent connections.
+ */
+public class StrategyRequestHandler implements IRequestHandler {
+    private final IServerStrategy strategy;
+
+    /**
+     * Constructs a handler that delegates every request to the given strategy.
+     *
+     * @param strategy The one-shot strategy to run per request
+     */
+    public StrategyRequestHandler(IServerStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Serializes the request as the strategy expects it, runs the strategy and reads its answer.
+     *
+     * @param request The request object sent by the client
+     * @return The object written by the strategy
+     * @throws Exception If the strategy did not produce an answer
+     */
+    @Override
+    public Object handle(Object request) throws Exception {
+        ByteArrayOutputStream requestBytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream toStrategy = new ObjectOutputStream(requestBytes)) {
+            toStrategy.writeObject(request);
+        }
+        ByteArrayOutputStream responseBytes = new ByteArrayOutputStream();
+        strategy.serverStrategy(new ByteArrayInputStream(requestBytes.toByteArray()), responseBytes);
+        try (ObjectInputStream fromStrategy = new ObjectInputStream(new ByteArrayInputStream(responseBytes.toByteArray()))) {
+            return fromStrategy.readObject();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package Server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Server that runs every accepted connection on a thread of its own instead of a fixed pool,
+ * so a client blocked on socket I/O never keeps another client waiting for a free thread.
+ * On a runtime with virtual threads (Java 21 and later) the connections run on virtual threads,
+ * which cost little more than the socket itself; on older runtimes they run on ordinary daemon threads.
+ * <p>
+ * The number of connections is not limited, so strategies doing heavy computation should limit it
+ * themselves, e.g. by being wrapped in a {@link CpuLimitedStrategy}.
+ * Accepting blocks until a client connects; {@link #stop()} closes the listening socket to end it.
+ */
+public class ThreadPerConnectionServer {
+    private static final ThreadFactory CONNECTION_THREADS = connectionThreadFactory();
+    private final int port;
+    private final IServerStrategy strategy;
+    private volatile boolean stop;
+    private ServerSocket serverSocket;
+
+    /**
+     * Constructs a server.
+     *
+     * @param port     Port to listen on
+     * @param strategy The strategy serving each connection
+     */
+    public ThreadPerConnectionServer(int port, IServerStrategy strategy) {
+        this.port = port;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Opens the listening socket and starts accepting connections on a background thread.
+     */
+    public void start() {
+        try {
+            serverSocket = new ServerSocket(port, 1024);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        System.out.println("Starting server at port = " + port);
+        Thread acceptor = new Thread(this::acceptConnections, "connection-acceptor-" + port);
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting connections. Connections already accepted are served to the end.
+     */
+    public void stop() {
+        System.out.println("Stopping server");
+        stop = true;
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Tells whether connections run on virtual threads on this runtime.
+     *
+     * @return true for virtual threads, false for platform threads
+     */
+    public static boolean usesVirtualThreads() {
+        return !(CONNECTION_THREADS instanceof PlatformThreads);
+    }
+
+    /**
+     * Body of the accepting thread: starts a thread for every client until the server is stopped.
+     */
+    private void acceptConnections() {
+        while (!stop) {
+            try {
+                Socket clientSocket = serverSocket.accept();
+                CONNECTION_THREADS.newThread(() -> serve(clientSocket)).start();
+            } catch (SocketException e) {
+                // listening socket closed by stop()
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Runs the strategy on one connection and closes it.
+     *
+     * @param clientSocket The accepted connection
+     */
+    private void serve(Socket clientSocket) {
+        try (Socket socket = clientSocket) {
+            InputStream inFromClient = socket.getInputStream();
+            OutputStream outToClient = socket.getOutputStream();
+            strategy.serverStrategy(inFromClient, outToClient);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns a factory of virtual threads if the runtime has them, and of daemon platform threads otherwise.
+     * The virtual thread API is looked up by reflection, since the sources are compiled for an older release.
+     *
+     * @return The factory for connection threads
+     */
+    private static ThreadFactory connectionThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Object factory = Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            return (ThreadFactory) factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return new PlatformThreads(); // no virtual threads, or only as a preview feature
+        }
+    }
+
+    /**
+     * Creates a daemon platform thread per connection.
+     */
+    private static final class PlatformThreads implements ThreadFactory {
+
+        /**
+         * Creates a connection thread.
+         *
+         * @param runnable The connection's work
+         * @return A new, not yet started daemon thread
+         */
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "connection");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -3,16 +3,32 @@ package View;
 import Server.*;
 import Server.ServerStrategyGenerateMaze;
 import Server.ServerStrategySolveSearchProblem;
+import IO.MazeFrame;
+import IO.MazeProtocol;
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.CompactSolution;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main extends Application {
 
     private static Server mazeGeneratingServer;
     private static Server solveSearchProblemServer;
+    private static SelectorServer selectorServiceServer;
+    private static final List<ThreadPerConnectionServer> connectionServers = new ArrayList<>();
+    private static SolutionStore solutionStore;
+    private static MazePool mazePool;
 
     /**
      * Starts the JavaFX application by loading the main FXML scene.
@@ -50,6 +66,16 @@ public class Main extends Application {
         if (solveSearchProblemServer != null) {
             solveSearchProblemServer.stop();
         }
+        if (selectorServiceServer != null) {
+            selectorServiceServer.stop();
+        }
+        for (ThreadPerConnectionServer server : connectionServers) {
+            server.stop();
+        }
+        closeSolutionStore();
+        if (mazePool != null) {
+            mazePool.close();
+        }
         
         // Exit application
         Platform.exit();
@@ -63,14 +89,80 @@ public class Main extends Application {
      * @param args Command-line arguments
      */
     public static void main(String[] args) {
-        Configurations config = Configurations.getInstance();
-        config.setConfigPath("resources/config.properties");
+        // settings read once and kept up to date as config.properties is edited, without ever rewriting it
+        ServerConfiguration.watch();
+        int workerThreads = ServerConfiguration.current().getThreadPoolSize();
         
-        // Start servers
-        mazeGeneratingServer = new Server(5400, 1000, new ServerStrategyGenerateMaze());
-        solveSearchProblemServer = new Server(5401, 1000, new ServerStrategySolveSearchProblem());
-        solveSearchProblemServer.start();
-        mazeGeneratingServer.start();
+        // The one-shot object servers of earlier versions, for clients that still connect to their own ports;
+        // the model and new clients reach the same strategies through the service port
+        boolean threadPerConnection = "connection".equals(System.getProperty("maze.server.threads", "pool"));
+        if (Boolean.getBoolean("maze.server.legacyPorts")) {
+            if (threadPerConnection) {
+                // connections wait on I/O without a pool slot; generating and solving hold one of the CPU permits
+                startConnectionServer(5400, new CpuLimitedStrategy(new ServerStrategyGenerateMaze()));
+                startConnectionServer(5401, new CpuLimitedStrategy(new ServerStrategySolveSearchProblem()));
+            } else {
+                mazeGeneratingServer = new Server(5400, 1000, new ServerStrategyGenerateMaze());
+                solveSearchProblemServer = new Server(5401, 1000, new ServerStrategySolveSearchProblem());
+                solveSearchProblemServer.start();
+                mazeGeneratingServer.start();
+            }
+        }
+
+        // One persistent connection service answering every request type, framed (or object) requests many per socket
+        // algorithms named in config.properties unless a request names another one
+        IRequestHandler generator = new GenerateRequestHandler();
+        IRequestHandler solver = new SearchRequestHandler();
+        try {
+            solutionStore = new SolutionStore(Paths.get(System.getProperty("java.io.tmpdir"), "maze-solutions"), 256L << 20, Duration.ofDays(30));
+        } catch (IOException e) {
+            e.printStackTrace(); // solve without the persistent tier
+        }
+        SolutionCache solutionCache = new SolutionCache(64L << 20, solutionStore); // in-memory tier above the persistent store
+        // compressed mazes of the sizes players ask for, generated ahead while the server is idle
+        mazePool = new MazePool(generator, Integer.getInteger("maze.pool.mazesPerSize", 4), Integer.getInteger("maze.pool.maxSizes", 8),
+                Long.getLong("maze.pool.maxBytes", 32L << 20), Integer.getInteger("maze.pool.refillThreads", 1));
+        mazePool.prepare(System.getProperty("maze.pool.sizes", ""));
+        // generate-and-solve frames are solved where the maze was generated
+        MazeFrameHandler mazeFrames = new MazeFrameHandler(mazePool, solver, solutionCache);
+        FrameRouter service = new FrameRouter();
+        service.register(MazeProtocol.GENERATE, "generate", mazeFrames);
+        service.register(MazeProtocol.SOLVE, "solve", mazeFrames);
+        service.register(MazeProtocol.GENERATE_AND_SOLVE, "generateAndSolve", mazeFrames);
+        service.register(MazeProtocol.GENERATE_SEEDED, "generateSeeded", mazeFrames);
+        service.register(MazeProtocol.STRATEGY_GENERATE_MAZE, "strategyGenerateMaze", new ServerStrategyGenerateMaze());
+        service.register(MazeProtocol.STATS, "stats", request ->
+                new MazeFrame(MazeProtocol.STATS, request.getRequestId(), service.toString().getBytes(StandardCharsets.UTF_8)));
+        service.addMetrics("mazePool", mazePool);
+        // object requests are told apart by their class
+        IRequestHandler compactSolver = new CompactSolutionRequestHandler(solver, solutionCache);
+        // solved like framed requests, through the solution cache, instead of by the jar's strategy and its tmpdir files
+        service.registerObjects(MazeProtocol.STRATEGY_SOLVE_SEARCH_PROBLEM, "strategySolveSearchProblem",
+                request -> new CompactSolution((byte[]) compactSolver.handle(request)));
+        IRequestHandler objects = request -> request instanceof SolveRequest || request instanceof Maze
+                ? compactSolver.handle(request) : mazePool.handle(request);
+        int servicePort = Integer.getInteger("maze.service.port", MazeProtocol.SERVICE_PORT);
+        FrameDispatcher dispatcher;
+        if (Boolean.getBoolean("maze.server.selector")) {
+            // one selector thread for all connections; framed clients only
+            selectorServiceServer = new SelectorServer(servicePort, service, workerThreads);
+            dispatcher = selectorServiceServer.getDispatcher();
+            selectorServiceServer.start();
+        } else {
+            // each connection on a thread of its own, since the strategy holds it for the connection's lifetime
+            // (a fixed pool would leave connections beyond its size unserved); the requests of all connections
+            // share the strategy's worker pool of threadPoolSize threads
+            ServerStrategyMultiplexed serviceStrategy = new ServerStrategyMultiplexed(service, objects, workerThreads);
+            dispatcher = serviceStrategy.getDispatcher();
+            startConnectionServer(servicePort, serviceStrategy);
+        }
+        service.addMetrics("dispatcher", dispatcher);
+        mazePool.pauseWhile(() -> dispatcher.getActive() + dispatcher.getQueued() > 0); // refill only while no request waits or runs
+        service.addMetrics("configuration", ServerConfiguration.current());
+        ServerConfiguration.addListener(configuration -> {
+            dispatcher.setWorkerThreads(configuration.getThreadPoolSize());
+            service.addMetrics("configuration", configuration);
+        });
         
         // Launch JavaFX application
         launch(args);
@@ -82,5 +174,41 @@ public class Main extends Application {
         if (solveSearchProblemServer != null) {
             solveSearchProblemServer.stop();
         }
+        if (selectorServiceServer != null) {
+            selectorServiceServer.stop();
+        }
+        for (ThreadPerConnectionServer server : connectionServers) {
+            server.stop();
+        }
+        closeSolutionStore();
+        if (mazePool != null) {
+            mazePool.close();
+        }
+    }
+
+    /**
+     * Starts a server running each connection on a thread of its own.
+     *
+     * @param port     Port to listen on
+     * @param strategy The strategy serving each connection
+     */
+    private static void startConnectionServer(int port, IServerStrategy strategy) {
+        ThreadPerConnectionServer server = new ThreadPerConnectionServer(port, strategy);
+        connectionServers.add(server);
+        server.start();
+    }
+
+    /**
+     * Closes the persistent solution store, if it was opened, so its index is marked clean.
+     */
+    private static synchronized void closeSolutionStore() {
+        if (solutionStore == null)
+            return;
+        try {
+            solutionStore.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        solutionStore = null;
     }
 }
@@ -1,8 +1,9 @@
 package View;
 
-import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.BitMaze;
 import algorithms.mazeGenerators.Position;
 import algorithms.search.AState;
+import algorithms.search.CompactSolution;
 import algorithms.search.Solution;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -16,7 +17,7 @@ import java.io.InputStream;
 
 public class MazeDisplay extends Canvas {
 
-    private Maze maze;
+    private BitMaze maze;
     private Solution solution;
     private int playerRow = 0;
     private int playerCol = 0;
@@ -97,9 +98,9 @@ public class MazeDisplay extends Canvas {
     /**
      * Sets the maze object and redraws it.
      *
-     * @param maze The Maze to be displayed
+     * @param maze The bit-packed maze to be displayed
      */
-    public void drawMaze(Maze maze) {
+    public void drawMaze(BitMaze maze) {
         this.maze = maze;
         draw();
     }
@@ -110,11 +111,10 @@ public class MazeDisplay extends Canvas {
      */
     private void draw() {
         if(maze != null){
-            int[][] mazeBody = maze.getMazeArray();
             double canvasHeight = getHeight();
             double canvasWidth = getWidth();
-            int rows = mazeBody.length;
-            int cols = mazeBody[0].length;
+            int rows = maze.getRows();
+            int cols = maze.getCols();
 
             cellHeight = canvasHeight / rows;
             cellWidth = canvasWidth / cols;
@@ -142,16 +142,22 @@ public class MazeDisplay extends Canvas {
         if (solution == null) {
             return;
         }
-        java.util.List<AState> path = solution.getSolutionPath();
-        if (path == null || path.size() < 1) {
-            return;
-        }
         Image solutionImage = null;
         try {
             solutionImage = new Image(getImageResourceAsStream("images/Solution.png"));
         } catch (Exception e) {
             solutionImage = null;
         }
+        if (solution instanceof CompactSolution) {
+            // decode the cells straight from the compact encoding
+            Image image = solutionImage;
+            ((CompactSolution) solution).forEachCell((row, col) -> drawSolutionCell(graphicsContext, row, col, cellHeight, cellWidth, image));
+            return;
+        }
+        java.util.List<AState> path = solution.getSolutionPath();
+        if (path == null || path.size() < 1) {
+            return;
+        }
         for (AState state : path) {
             Object obj = state.getObject();
             if (!(obj instanceof Position)) continue;
@@ -188,8 +194,6 @@ public class MazeDisplay extends Canvas {
      * @param cols Number of maze columns
      */
     private void drawMazeWalls(GraphicsContext graphicsContext, double cellHeight, double cellWidth, int rows, int cols) {
-        int[][] mazeBody = maze.getMazeArray();
-
         graphicsContext.setFill(Color.RED);
         javafx.scene.image.Image wallImage = null;
 
@@ -199,7 +203,7 @@ public class MazeDisplay extends Canvas {
         }
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if(mazeBody[i][j] == 1){
+                if(maze.isWall(i, j)){
                     double x = j * cellWidth;
                     double y = i * cellHeight;
                     if(wallImage == null) {
@@ -1,8 +1,11 @@
 package View;
 
 import Model.IModel;
+import Model.MovementDirection;
 import Model.MyModel;
 import ViewModel.MyViewModel;
+import algorithms.mazeGenerators.Position;
+import algorithms.search.Solution;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -157,6 +160,8 @@ public class MyViewController implements Initializable, Observer ,IView {
 
     /**
      * Handles the action of solving the maze and displaying the solution.
+     * The model solves each new maze ahead of time, so the solution is usually shown right away;
+     * otherwise it is shown once it arrives.
      * Disables the player path and updates the status label.
      * If no maze is present, shows a warning alert.
      *
@@ -165,7 +170,7 @@ public class MyViewController implements Initializable, Observer ,IView {
     public void handleShowSolution(ActionEvent actionEvent) {
         mouseAudio();
         if (mazeDisplayer != null) {
-            myViewModel.solveMaze();
+            myViewModel.solveMaze(); // the solution is shown by mazeSolved() when the model reports it
             // Hide player path when showing solution
             mazeDisplayer.setShowPlayerPath(false);
             statusLabel.setText("Solution displayed - Follow the yellow path to the goal! Click on maze to continue playing.");
@@ -222,7 +227,9 @@ public class MyViewController implements Initializable, Observer ,IView {
 
     /**
      * Toggles the display of the solution on the maze.
-     * Solves the maze if the solution is not already available.
+     * Shows the path from the player's position as soon as the model's hints for the maze are ready.
+     * Until then, solves the maze if the solution is not already available, or from the player's position
+     * on the maze's cached junction graph once the player has left the start.
      *
      * @param actionEvent the triggering action event
      */
@@ -231,13 +238,24 @@ public class MyViewController implements Initializable, Observer ,IView {
         if (isCurrentlyShown) {
             mazeDisplayer.setSolution(null);
             toggleSolutionButton.setText("Show Solution");
+            return;
+        }
+        if (myViewModel.getBitMaze() == null)
+            return; // no maze to solve yet
+        Solution fromPlayer = myViewModel.getSolutionFromPlayer();
+        if (fromPlayer != null) {
+            mazeDisplayer.setSolution(fromPlayer);
+            toggleSolutionButton.setText("Hide Solution");
+            return;
+        }
+        Position start = myViewModel.getStartPosition();
+        if (myViewModel.getPlayerRow() != start.getRowIndex() || myViewModel.getPlayerCol() != start.getColumnIndex()) {
+            myViewModel.solveFromPlayer(); // solution will be set and button updated in mazeSolved()
+        } else if (myViewModel.getSolution() == null) {
+            myViewModel.solveMaze(); // solution will be set and button updated in mazeSolved()
         } else {
-            if (myViewModel.getSolution() == null) {
-                myViewModel.solveMaze(); // solution will be set and button updated in mazeSolved()
-            } else {
-                mazeDisplayer.setSolution(myViewModel.getSolution());
-                toggleSolutionButton.setText("Hide Solution");
-            }
+            mazeDisplayer.setSolution(myViewModel.getSolution());
+            toggleSolutionButton.setText("Hide Solution");
         }
     }
 
@@ -298,13 +316,13 @@ public class MyViewController implements Initializable, Observer ,IView {
      * @param keyEvent the keyboard input event
      */
     public void keyPressed(KeyEvent keyEvent) {
-        if (myViewModel.getMaze() == null) return; // prevent crash
+        if (myViewModel.getBitMaze() == null) return; // prevent crash
 
         myViewModel.movePlayer(keyEvent);
         keyEvent.consume();
 
-        if (myViewModel.getPlayerRow() == myViewModel.getMaze().getGoalPosition().getRowIndex() &&
-                myViewModel.getPlayerCol() == myViewModel.getMaze().getGoalPosition().getColumnIndex()) {
+        if (myViewModel.getPlayerRow() == myViewModel.getGoalPosition().getRowIndex() &&
+                myViewModel.getPlayerCol() == myViewModel.getGoalPosition().getColumnIndex()) {
             won();
         }
     }
@@ -506,9 +524,19 @@ public class MyViewController implements Initializable, Observer ,IView {
      * Updates the player's position and UI after movement.
      */
     private void playerMoved() {
+        String hint = "";
+        if (mazeDisplayer.getSolution() != null) {
+            // keep the shown solution starting at the player
+            Solution fromPlayer = myViewModel.getSolutionFromPlayer();
+            if (fromPlayer != null)
+                mazeDisplayer.setSolution(fromPlayer);
+            MovementDirection nextStep = myViewModel.getHint();
+            if (nextStep != null)
+                hint = " - next step: " + nextStep;
+        }
         setPlayerPosition(myViewModel.getPlayerRow(), myViewModel.getPlayerCol());
         playMoveSound();
-        statusLabel.setText("Player moved to position: (" + myViewModel.getPlayerRow() + ", " + myViewModel.getPlayerCol() + ")");
+        statusLabel.setText("Player moved to position: (" + myViewModel.getPlayerRow() + ", " + myViewModel.getPlayerCol() + ")" + hint);
     }
 
     /**
@@ -517,7 +545,7 @@ public class MyViewController implements Initializable, Observer ,IView {
      */
     private void mazeGenerated() {
         System.out.println("mazeGenerated: called");
-        mazeDisplayer.drawMaze(myViewModel.getMaze());
+        mazeDisplayer.drawMaze(myViewModel.getBitMaze());
         System.out.println("mazeGenerated: after drawMaze");
         mazeDisplayer.setSolution(null);
         System.out.println("mazeGenerated: after setSolution(null)");
@@ -652,7 +680,7 @@ public class MyViewController implements Initializable, Observer ,IView {
 
         setPlayerPosition(startRow, startCol);
 
-        mazeDisplayer.drawMaze(myViewModel.getMaze());
+        mazeDisplayer.drawMaze(myViewModel.getBitMaze());
         playMusic();
     }
 
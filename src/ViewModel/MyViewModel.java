@@ -2,13 +2,16 @@ package ViewModel;
 
 import Model.IModel;
 import Model.MovementDirection;
+import algorithms.mazeGenerators.BitMaze;
 import algorithms.mazeGenerators.Maze;
 import algorithms.mazeGenerators.Position;
 import algorithms.search.Solution;
+import javafx.application.Platform;
 import javafx.scene.input.KeyEvent;
 
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.CompletableFuture;
 
 public class MyViewModel extends Observable implements Observer {
 
@@ -26,12 +29,14 @@ public class MyViewModel extends Observable implements Observer {
 
     /**
      * Requests the model to generate a new maze with given dimensions.
+     * Returns immediately; observers are notified when the maze is ready.
      *
      * @param rows Number of maze rows
      * @param cols Number of maze columns
+     * @return A future completed with the generated maze
      */
-    public void generateMaze(int rows, int cols){
-        model.generateMaze(rows,cols);
+    public CompletableFuture<BitMaze> generateMaze(int rows, int cols){
+        return model.generateMazeAsync(rows,cols);
     }
 
     /**
@@ -43,11 +48,51 @@ public class MyViewModel extends Observable implements Observer {
         return model.getMaze();
     }
 
+    /**
+     * Retrieves the current maze from the model in its bit-packed form.
+     *
+     * @return BitMaze object
+     */
+    public BitMaze getBitMaze(){
+        return model.getBitMaze();
+    }
+
     /**
      * Requests the model to solve the current maze.
+     * Returns immediately; observers are notified when the solution is ready.
+     *
+     * @return A future completed with the solution
+     */
+    public CompletableFuture<Solution> solveMaze(){
+        return model.solveMazeAsync();
+    }
+
+    /**
+     * Requests the model to solve the current maze from the player's position.
+     * Returns immediately; observers are notified when the solution is ready.
+     *
+     * @return A future completed with the solution
      */
-    public void solveMaze(){
-        model.solveMaze();
+    public CompletableFuture<Solution> solveFromPlayer(){
+        return model.solveFromPlayerAsync();
+    }
+
+    /**
+     * Retrieves a shortest path from the player's position from the model.
+     *
+     * @return Solution object, or null while the model is still computing the maze's hints
+     */
+    public Solution getSolutionFromPlayer(){
+        return model.getSolutionFromPlayer();
+    }
+
+    /**
+     * Retrieves the next best step from the player's position from the model.
+     *
+     * @return The direction, or null if there is no hint
+     */
+    public MovementDirection getHint(){
+        return model.getHint();
     }
 
     /**
@@ -95,14 +140,22 @@ public class MyViewModel extends Observable implements Observer {
 
     /**
      * Receives updates from the model and notifies observers (e.g., the View).
+     * The model may report from a background thread, so observers are always notified on the JavaFX thread.
      *
      * @param o   The observable object (model)
      * @param arg The argument passed by the observable (update message)
      */
     @Override
     public void update(Observable o, Object arg) {
-        setChanged();
-        notifyObservers(arg);
+        if (Platform.isFxApplicationThread()) {
+            setChanged();
+            notifyObservers(arg);
+        } else {
+            Platform.runLater(() -> {
+                setChanged();
+                notifyObservers(arg);
+            });
+        }
     }
 
     /**
@@ -111,7 +164,7 @@ public class MyViewModel extends Observable implements Observer {
      * @return Position object representing the start
      */
     public Position getStartPosition() {
-        return model.getMaze().getStartPosition();
+        return model.getBitMaze().getStartPosition();
     }
 
     /**
@@ -120,7 +173,7 @@ public class MyViewModel extends Observable implements Observer {
      * @return Position object representing the goal
      */
     public Position getGoalPosition() {
-        return model.getMaze().getGoalPosition();
+        return model.getBitMaze().getGoalPosition();
     }
 
     /**
@@ -150,5 +203,16 @@ public class MyViewModel extends Observable implements Observer {
     public void saveMaze(String name){
         model.saveMaze(name);
     }
+
+    /**
+     * Requests the model to load a saved maze.
+     * Returns immediately; observers are notified when the maze is ready.
+     *
+     * @param name The filename the maze was saved under
+     * @return A future completed with the loaded maze
+     */
+    public CompletableFuture<BitMaze> loadMaze(String name){
+        return model.loadMazeAsync(name);
+    }
 }
 
@@ -0,0 +1,250 @@
+package algorithms.mazeGenerators;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates perfect mazes with Eller's algorithm, one row at a time.
+ * <p>
+ * Rooms sit on the even rows and columns and the cells between them are walls or passages.
+ * Eller's algorithm only remembers, for the rooms of the current room row, which set (connected part
+ * of the maze so far) each room belongs to. Within a row it randomly joins neighboring rooms of different
+ * sets, then lets every set go down to the next row through at least one room; the last row joins all
+ * remaining sets. Every row is final once it is produced, so the maze can be written out while it is
+ * generated, with working memory proportional to the number of columns.
+ * <p>
+ * The start is the top left room and the goal the bottom right one. With an even number of rows or
+ * columns the last row or column is all wall.
+ * <p>
+ * A generator constructed with a seed produces the same maze for the same size every time, so the maze can be
+ * stored and sent as its seed. Each maze restarts from the seed.
+ * <p>
+ * Generation stops with an {@link InterruptedIOException} between rows when the thread is interrupted,
+ * so a server can give up on a huge maze whose client is gone.
+ */
+public class EllerMazeGenerator extends AMazeGenerator implements IStreamingMazeGenerator {
+    private final long seed;
+
+    /**
+     * Constructs a generator with a random seed.
+     */
+    public EllerMazeGenerator() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a generator that always produces the same maze for the same size.
+     *
+     * @param seed The seed
+     */
+    public EllerMazeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the seed the mazes are generated from.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates a maze in memory.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return The maze
+     */
+    @Override
+    public Maze generate(int rows, int cols) {
+        return generateBitMaze(rows, cols).toMaze();
+    }
+
+    /**
+     * Generates a maze in its bit-packed form, without building an int[][] on the way.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @return The maze
+     */
+    public BitMaze generateBitMaze(int rows, int cols) {
+        BitMaze[] maze = new BitMaze[1];
+        try {
+            generate(rows, cols, new IMazeRowSink() {
+                private int row;
+
+                @Override
+                public void start(int rows, int cols, Position startPosition, Position goalPosition) {
+                    maze[0] = new BitMaze(rows, cols, startPosition, goalPosition);
+                }
+
+                @Override
+                public void row(long[] walls) {
+                    for (int word = 0; word < walls.length; word++) {
+                        for (long bits = walls[word]; bits != 0; bits &= bits - 1)
+                            maze[0].setWall(row, (word << 6) + Long.numberOfTrailingZeros(bits), true);
+                    }
+                    row++;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // only when interrupted, nothing else fails with an in-memory sink
+        }
+        return maze[0];
+    }
+
+    /**
+     * Generates a maze and passes its rows to a sink as they are produced.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param sink Receives the maze's size, start, goal and rows
+     * @throws IOException If the sink fails, or an {@link InterruptedIOException} if the thread is interrupted
+     */
+    @Override
+    public void generate(int rows, int cols, IMazeRowSink sink) throws IOException {
+        if (rows <= 0 || cols <= 0)
+            throw new IllegalArgumentException("Invalid maze size: " + rows + "x" + cols);
+        SplittableRandom random = new SplittableRandom(seed); // one instance per maze, so no atomic seed updates
+        int roomRows = (rows + 1) / 2;
+        int roomCols = (cols + 1) / 2;
+        sink.start(rows, cols, new Position(0, 0), new Position(2 * (roomRows - 1), 2 * (roomCols - 1)));
+
+        int words = (cols + 63) >>> 6;
+        long[] roomRow = new long[words];
+        long[] wallRow = new long[words];
+        int[] sets = new int[roomCols];     // set of each room in the current room row, -1 for none yet
+        int[] parents = new int[roomCols];  // union-find over the set labels while a row is joined
+        int[] members = new int[roomCols];  // per set, a randomly chosen room
+        int[] counts = new int[roomCols];   // per set, the number of rooms seen so far
+        boolean[] used = new boolean[roomCols];
+        boolean[] down = new boolean[roomCols];
+        Arrays.fill(sets, -1);
+
+        for (int roomRowIndex = 0; roomRowIndex < roomRows; roomRowIndex++) {
+            if (Thread.currentThread().isInterrupted())
+                throw new InterruptedIOException("Maze generation interrupted");
+            boolean last = roomRowIndex == roomRows - 1;
+            labelNewRooms(sets, used);
+            for (int label = 0; label < roomCols; label++)
+                parents[label] = label;
+
+            // walls on the odd columns, then open some of them to join neighboring sets
+            fillWalls(roomRow, cols, true);
+            for (int room = 0; room + 1 < roomCols; room++) {
+                int left = find(parents, sets[room]);
+                int right = find(parents, sets[room + 1]);
+                if (left != right && (last || random.nextBoolean())) {
+                    clear(roomRow, 2 * room + 1);
+                    parents[right] = left;
+                }
+            }
+            for (int room = 0; room < roomCols; room++)
+                sets[room] = find(parents, sets[room]);
+            sink.row(roomRow);
+            if (last)
+                break;
+
+            // every set goes down through at least one of its rooms
+            for (int room = 0; room < roomCols; room++) {
+                counts[sets[room]] = 0;
+                used[sets[room]] = false;
+            }
+            for (int room = 0; room < roomCols; room++) {
+                int label = sets[room];
+                if (random.nextInt(++counts[label]) == 0)
+                    members[label] = room;
+                down[room] = random.nextBoolean();
+                if (down[room])
+                    used[label] = true;
+            }
+            for (int room = 0; room < roomCols; room++) {
+                int label = sets[room];
+                if (!used[label]) {
+                    down[members[label]] = true;
+                    used[label] = true;
+                }
+            }
+            fillWalls(wallRow, cols, false);
+            for (int room = 0; room < roomCols; room++) {
+                if (down[room])
+                    clear(wallRow, 2 * room);
+                else
+                    sets[room] = -1;
+            }
+            sink.row(wallRow);
+        }
+        if (rows % 2 == 0) {
+            fillWalls(wallRow, cols, false);
+            sink.row(wallRow);
+        }
+    }
+
+    /**
+     * Gives every room without a set a label no other room of the row uses.
+     * A row never has more sets than rooms, so a free label always exists.
+     *
+     * @param sets Set of each room, -1 for none
+     * @param used Scratch array, one entry per label
+     */
+    private static void labelNewRooms(int[] sets, boolean[] used) {
+        Arrays.fill(used, false);
+        for (int set : sets) {
+            if (set >= 0)
+                used[set] = true;
+        }
+        int free = 0;
+        for (int room = 0; room < sets.length; room++) {
+            if (sets[room] >= 0)
+                continue;
+            while (used[free])
+                free++;
+            sets[room] = free;
+            used[free] = true;
+        }
+    }
+
+    /**
+     * Returns the representative label of a set, halving the path on the way.
+     *
+     * @param parents Union-find parent of each label
+     * @param label   A label
+     * @return The representative label
+     */
+    private static int find(int[] parents, int label) {
+        while (parents[label] != label) {
+            parents[label] = parents[parents[label]];
+            label = parents[label];
+        }
+        return label;
+    }
+
+    /**
+     * Makes a row all wall, or wall on its odd columns only.
+     *
+     * @param row      Wall bits of the row
+     * @param cols     Number of columns
+     * @param oddsOnly true for walls on the odd columns only
+     */
+    private static void fillWalls(long[] row, int cols, boolean oddsOnly) {
+        long pattern = oddsOnly ? 0xAAAAAAAAAAAAAAAAL : -1L;
+        Arrays.fill(row, pattern);
+        if ((cols & 63) != 0)
+            row[row.length - 1] &= (1L << cols) - 1;
+    }
+
+    /**
+     * Opens a cell of a row.
+     *
+     * @param row Wall bits of the row
+     * @param col Column index
+     */
+    private static void clear(long[] row, int col) {
+        row[col >>> 6] &= ~(1L << col);
+    }
+}
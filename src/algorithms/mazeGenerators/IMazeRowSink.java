@@ -0,0 +1,28 @@
+package algorithms.mazeGenerators;
+
+import java.io.IOException;
+
+/**
+ * Receives a maze one row at a time from an {@link IStreamingMazeGenerator}.
+ */
+public interface IMazeRowSink {
+
+    /**
+     * Called once before the first row.
+     *
+     * @param rows          Number of rows
+     * @param cols          Number of columns
+     * @param startPosition Start position
+     * @param goalPosition  Goal position
+     * @throws IOException If the sink cannot take the maze
+     */
+    void start(int rows, int cols, Position startPosition, Position goalPosition) throws IOException;
+
+    /**
+     * Called for every row, top to bottom. The array is reused for the next row.
+     *
+     * @param walls Wall bits of the row (1 = wall), column c in bit {@code c & 63} of {@code walls[c >>> 6]}
+     * @throws IOException If the sink cannot take the row
+     */
+    void row(long[] walls) throws IOException;
+}
@@ -0,0 +1,20 @@
+package algorithms.mazeGenerators;
+
+import java.io.IOException;
+
+/**
+ * A maze generator that can hand out the maze row by row instead of building it in memory,
+ * so the size of the mazes it produces is not limited by the heap.
+ */
+public interface IStreamingMazeGenerator extends IMazeGenerator {
+
+    /**
+     * Generates a maze and passes its rows to a sink as they are produced.
+     *
+     * @param rows Number of rows
+     * @param cols Number of columns
+     * @param sink Receives the maze's size, start, goal and rows
+     * @throws IOException If the sink fails
+     */
+    void generate(int rows, int cols, IMazeRowSink sink) throws IOException;
+}
@@ -0,0 +1,115 @@
+package algorithms.search;
+
+/**
+ * Base of the solvers that search a {@link MazeGrid} by cell index instead of creating
+ * {@link MazeState} objects. States are created only for the cells of the path found.
+ */
+public abstract class AGridSearch extends ASearchingAlgorithm {
+
+    /**
+     * Solves a maze given as a {@link MazeGrid} or a {@link SearchableMaze}.
+     * Passing a MazeGrid avoids the state SearchableMaze creates for every open cell.
+     *
+     * @param domain The maze to solve
+     * @return The path from start to goal, or an empty solution if the goal cannot be reached
+     * @throws IllegalArgumentException If the domain is not a maze
+     */
+    @Override
+    public Solution solve(ISearchable domain) {
+        MazeGrid grid;
+        if (domain instanceof MazeGrid)
+            grid = (MazeGrid) domain;
+        else if (domain instanceof SearchableMaze)
+            grid = MazeGrid.of(((SearchableMaze) domain).getMaze());
+        else
+            throw new IllegalArgumentException(getName() + " only solves mazes");
+        return grid.toSolution(findPath(grid));
+    }
+
+    /**
+     * Searches the grid and reports the number of evaluated cells with {@link #setNumOfNodes}.
+     *
+     * @param grid The maze grid
+     * @return The cells from start to goal, or null if the goal cannot be reached
+     */
+    protected abstract int[] findPath(MazeGrid grid);
+
+    /**
+     * Builds the path by following parent directions back from the goal.
+     *
+     * @param grid       The maze grid
+     * @param directions For every reached cell, the direction of the move that reached it
+     * @param goal       The last cell of the path
+     * @return The cells from start to goal
+     */
+    protected static int[] tracePath(MazeGrid grid, byte[] directions, int goal) {
+        int start = grid.getStart();
+        int length = 1;
+        for (int cell = goal; cell != start; cell -= grid.getStep(directions[cell]))
+            length++;
+        int[] path = new int[length];
+        int cell = goal;
+        for (int i = length - 1; i > 0; i--) {
+            path[i] = cell;
+            cell -= grid.getStep(directions[cell]);
+        }
+        path[0] = start;
+        return path;
+    }
+
+    /**
+     * Returns the Manhattan distance from a cell to the goal.
+     *
+     * @param grid    The maze grid
+     * @param cell    Cell index
+     * @param goalRow Goal row
+     * @param goalCol Goal column
+     * @return The estimated remaining distance
+     */
+    protected static int estimate(MazeGrid grid, int cell, int goalRow, int goalCol) {
+        return Math.abs(grid.rowOf(cell) - goalRow) + Math.abs(grid.colOf(cell) - goalCol);
+    }
+
+    /**
+     * Moves the entry at the given position up until its parent is not larger.
+     *
+     * @param heap     The heap
+     * @param position Position of the entry
+     */
+    protected static void siftUp(long[] heap, int position) {
+        long entry = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent] <= entry)
+                break;
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = entry;
+    }
+
+    /**
+     * Moves the root entry down until neither child is smaller.
+     *
+     * @param heap The heap
+     * @param size Number of entries in the heap
+     */
+    protected static void siftDown(long[] heap, int size) {
+        if (size == 0)
+            return;
+        long entry = heap[0];
+        int position = 0;
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && heap[child + 1] < heap[child])
+                child++;
+            if (heap[child] >= entry)
+                break;
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = entry;
+    }
+}
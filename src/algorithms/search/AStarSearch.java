@@ -0,0 +1,80 @@
+package algorithms.search;
+
+/**
+ * A* search over a {@link MazeGrid} with the Manhattan distance to the goal as heuristic.
+ * The player moves in four directions with unit cost, so the heuristic never overestimates
+ * and the path found is a shortest one.
+ * <p>
+ * Like {@link PrimitiveBreadthFirstSearch} it works on primitive arrays from the thread's
+ * {@link SearchWorkspace}: a bitset of reached cells, a distance and a direction per cell, and a
+ * binary heap of longs holding the f score in the high half and the cell in the low half.
+ */
+public class AStarSearch extends AGridSearch {
+
+    /**
+     * Searches the grid until the goal is taken from the open set.
+     *
+     * @param grid The maze grid
+     * @return The cells of a shortest path from start to goal, or null if the goal cannot be reached
+     */
+    @Override
+    protected int[] findPath(MazeGrid grid) {
+        SearchWorkspace workspace = SearchWorkspace.get(grid.getCellCount());
+        int cells = grid.getCellCount();
+        long[] reached = workspace.visited(cells);
+        byte[] directions = workspace.directions(cells);
+        int[] distances = workspace.distances(cells);
+        long[] heap = workspace.heap(1024);
+        int start = grid.getStart();
+        int goal = grid.getGoal();
+        int goalRow = grid.rowOf(goal);
+        int goalCol = grid.colOf(goal);
+
+        reached[start >>> 6] |= 1L << start;
+        distances[start] = 0;
+        heap[0] = (long) estimate(grid, start, goalRow, goalCol) << 32 | start;
+        int size = 1;
+        int evaluated = 0;
+        boolean found = false;
+        while (size > 0) {
+            long entry = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            int cell = (int) entry;
+            int distance = distances[cell];
+            if ((int) (entry >>> 32) != distance + estimate(grid, cell, goalRow, goalCol))
+                continue; // stale entry, the cell was reached more cheaply since
+            evaluated++;
+            if (cell == goal) {
+                found = true;
+                break;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int next = cell + grid.getStep(direction);
+                long bit = 1L << next;
+                boolean seen = (reached[next >>> 6] & bit) != 0;
+                if ((seen && distances[next] <= distance + 1) || !grid.isOpen(next))
+                    continue;
+                reached[next >>> 6] |= bit;
+                distances[next] = distance + 1;
+                directions[next] = (byte) direction;
+                if (size == heap.length)
+                    heap = workspace.growHeap();
+                heap[size] = (long) (distance + 1 + estimate(grid, next, goalRow, goalCol)) << 32 | next;
+                siftUp(heap, size++);
+            }
+        }
+        setNumOfNodes(evaluated);
+        return found ? tracePath(grid, directions, goal) : null;
+    }
+
+    /**
+     * Returns the algorithm's name.
+     *
+     * @return The name
+     */
+    @Override
+    public String getName() {
+        return "AStarSearch";
+    }
+}
@@ -0,0 +1,155 @@
+package algorithms.search;
+
+/**
+ * Breadth-first search over a {@link MazeGrid} from the start and from the goal at once,
+ * stopping when the two searches meet. Each round expands one whole level of the side with the
+ * smaller frontier, so on long corridors both searches cover only about half the distance, and a
+ * goal walled into a small pocket is given up on as soon as that pocket is exhausted.
+ * <p>
+ * Like {@link PrimitiveBreadthFirstSearch} it keeps a visited bitset and a ring-buffer queue per side
+ * from the thread's {@link SearchWorkspace}. The direction that reached a cell is kept in one shared
+ * array, since a cell is reached by only one side before the search stops.
+ */
+public class BidirectionalBreadthFirstSearch extends AGridSearch {
+
+    /**
+     * Searches the grid from both ends until the frontiers meet.
+     *
+     * @param grid The maze grid
+     * @return The cells of a shortest path from start to goal, or null if the goal cannot be reached
+     */
+    @Override
+    protected int[] findPath(MazeGrid grid) {
+        SearchWorkspace workspace = SearchWorkspace.get(grid.getCellCount());
+        int cells = grid.getCellCount();
+        byte[] directions = workspace.directions(cells);
+        Frontier fromStart = new Frontier(workspace, false, workspace.visited(cells), workspace.queue(1024), grid.getStart());
+        Frontier fromGoal = new Frontier(workspace, true, workspace.goalVisited(cells), workspace.goalQueue(1024), grid.getGoal());
+        if (grid.getStart() == grid.getGoal()) {
+            setNumOfNodes(0);
+            return new int[]{grid.getStart()};
+        }
+
+        Frontier met = null;
+        while (met == null && fromStart.size > 0 && fromGoal.size > 0) {
+            Frontier side = fromStart.size <= fromGoal.size ? fromStart : fromGoal;
+            Frontier other = side == fromStart ? fromGoal : fromStart;
+            if (side.expandLevel(grid, other, directions))
+                met = side;
+        }
+        setNumOfNodes(fromStart.expanded + fromGoal.expanded);
+        if (met == null)
+            return null;
+        if (met == fromStart)
+            return joinPath(grid, directions, met.meetCell, met.meetNeighbor);
+        return joinPath(grid, directions, met.meetNeighbor, met.meetCell);
+    }
+
+    /**
+     * Builds the path through the two cells where the searches met.
+     *
+     * @param grid       The maze grid
+     * @param directions For every reached cell, the direction of the move that reached it
+     * @param startSide  The meeting cell reached from the start
+     * @param goalSide   The adjacent meeting cell reached from the goal
+     * @return The cells from start to goal
+     */
+    private static int[] joinPath(MazeGrid grid, byte[] directions, int startSide, int goalSide) {
+        int[] head = tracePath(grid, directions, startSide);
+        int goal = grid.getGoal();
+        int tailLength = 1;
+        for (int cell = goalSide; cell != goal; cell -= grid.getStep(directions[cell]))
+            tailLength++;
+        int[] path = new int[head.length + tailLength];
+        System.arraycopy(head, 0, path, 0, head.length);
+        int cell = goalSide;
+        for (int i = head.length; i < path.length; i++) {
+            path[i] = cell;
+            if (cell != goal)
+                cell -= grid.getStep(directions[cell]);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the algorithm's name.
+     *
+     * @return The name
+     */
+    @Override
+    public String getName() {
+        return "BidirectionalBreadthFirstSearch";
+    }
+
+    /**
+     * One side of the search: its visited cells and its ring-buffer queue of cells to expand.
+     */
+    private static final class Frontier {
+        private final SearchWorkspace workspace;
+        private final boolean fromGoal;
+        private final long[] visited;
+        private int[] queue;
+        private int head;
+        private int size;
+        private int expanded;
+        private int meetCell;
+        private int meetNeighbor;
+
+        /**
+         * Constructs a side with only its first cell queued.
+         *
+         * @param workspace The workspace the arrays came from, to grow the queue
+         * @param fromGoal  Whether this side searches from the goal
+         * @param visited   Cleared visited bitset
+         * @param queue     Queue array, a power of two long
+         * @param first     The start or goal cell
+         */
+        private Frontier(SearchWorkspace workspace, boolean fromGoal, long[] visited, int[] queue, int first) {
+            this.workspace = workspace;
+            this.fromGoal = fromGoal;
+            this.visited = visited;
+            this.queue = queue;
+            visited[first >>> 6] |= 1L << first;
+            queue[0] = first;
+            size = 1;
+        }
+
+        /**
+         * Expands every queued cell, queueing their unvisited open neighbors as the next level.
+         *
+         * @param grid       The maze grid
+         * @param other      The other side of the search
+         * @param directions The shared array of directions that reached each cell
+         * @return true if a neighbor was already visited by the other side; meetCell and meetNeighbor hold the pair
+         */
+        private boolean expandLevel(MazeGrid grid, Frontier other, byte[] directions) {
+            long[] otherVisited = other.visited;
+            for (int level = size; level > 0; level--) {
+                int cell = queue[head];
+                head = (head + 1) & (queue.length - 1);
+                size--;
+                expanded++;
+                for (int direction = 0; direction < 4; direction++) {
+                    int next = cell + grid.getStep(direction);
+                    long bit = 1L << next;
+                    if ((otherVisited[next >>> 6] & bit) != 0) {
+                        meetCell = cell;
+                        meetNeighbor = next;
+                        return true;
+                    }
+                    if ((visited[next >>> 6] & bit) != 0 || !grid.isOpen(next))
+                        continue;
+                    visited[next >>> 6] |= bit;
+                    directions[next] = (byte) direction;
+                    if (size == queue.length) {
+                        queue = fromGoal ? workspace.growGoalQueue(head) : workspace.growQueue(head);
+                        head = 0;
+                    }
+                    queue[(head + size) & (queue.length - 1)] = next;
+                    size++;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package algorithms.search;
+
+import IO.SolutionCodec;
+import algorithms.mazeGenerators.Position;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * A solution kept in the compact encoding written by {@link SolutionCodec}.
+ * Cells are decoded only when they are walked with {@link #forEachCell}; the list of states
+ * returned by {@link #getSolutionPath()} is built on first use for callers that need it.
+ */
+public class CompactSolution extends Solution {
+    private static final long serialVersionUID = 1L;
+    private final byte[] encoded;
+    private final boolean runLength;
+    private final int startRow;
+    private final int startCol;
+    private final int steps;
+    private ArrayList<AState> path;
+
+    /**
+     * Receives the cells of a solution, in order from start to goal.
+     */
+    public interface CellVisitor {
+        void visit(int row, int col);
+    }
+
+    /**
+     * Wraps an encoded solution.
+     *
+     * @param encoded Bytes produced by {@link SolutionCodec}
+     * @throws IllegalArgumentException If the bytes are too short for the header or the step count,
+     *                                  the step count is invalid, or the runs do not add up to it
+     */
+    public CompactSolution(byte[] encoded) {
+        super(new ArrayList<>());
+        if (encoded.length < SolutionCodec.HEADER_SIZE)
+            throw new IllegalArgumentException("Encoded solution is too short: " + encoded.length + " bytes");
+        ByteBuffer header = ByteBuffer.wrap(encoded);
+        this.encoded = encoded;
+        this.runLength = (header.get() & SolutionCodec.RUN_LENGTH) != 0;
+        this.startRow = header.getInt();
+        this.startCol = header.getInt();
+        this.steps = header.getInt();
+        if (steps < -1) // -1 marks a solution without a path
+            throw new IllegalArgumentException("Invalid number of steps: " + steps);
+        if (runLength)
+            checkRuns(encoded, steps);
+        else if (steps > 0 && encoded.length < SolutionCodec.HEADER_SIZE + (steps + 3L) / 4)
+            throw new IllegalArgumentException("Encoded solution is truncated");
+    }
+
+    /**
+     * Checks that the runs of a run-length encoded solution cover exactly its steps,
+     * so that {@link #forEachCell} can trust them.
+     *
+     * @param encoded The encoded solution
+     * @param steps   Number of steps given in its header
+     * @throws IllegalArgumentException If the runs end early or go past the steps
+     */
+    private static void checkRuns(byte[] encoded, int steps) {
+        long covered = 0;
+        int index = SolutionCodec.HEADER_SIZE;
+        while (covered < steps) {
+            if (index == encoded.length)
+                throw new IllegalArgumentException("Encoded solution is truncated");
+            covered += (encoded[index++] & 0x3F) + 1;
+        }
+        if (covered != Math.max(steps, 0))
+            throw new IllegalArgumentException("Runs of the encoded solution cover " + covered + " steps instead of " + steps);
+    }
+
+    /**
+     * Returns the number of cells on the path, start and goal included.
+     *
+     * @return Number of cells
+     */
+    public int getLength() {
+        return steps < 0 ? 0 : steps + 1;
+    }
+
+    /**
+     * Returns the encoded bytes.
+     *
+     * @return The encoded solution
+     */
+    public byte[] getEncoded() {
+        return encoded;
+    }
+
+    /**
+     * Decodes the path and passes every cell to the visitor, from start to goal.
+     *
+     * @param visitor Receives each cell
+     */
+    public void forEachCell(CellVisitor visitor) {
+        if (steps < 0)
+            return;
+        int row = startRow;
+        int col = startCol;
+        visitor.visit(row, col);
+        int index = SolutionCodec.HEADER_SIZE;
+        for (int step = 0; step < steps; ) {
+            int direction;
+            int length;
+            if (runLength) {
+                int run = encoded[index++] & 0xFF;
+                direction = run >>> 6;
+                length = (run & 0x3F) + 1;
+            } else {
+                direction = (encoded[index + (step >> 2)] >>> (6 - 2 * (step & 3))) & 3;
+                length = 1;
+            }
+            for (int i = 0; i < length; i++) {
+                switch (direction) {
+                    case SolutionCodec.UP -> row--;
+                    case SolutionCodec.DOWN -> row++;
+                    case SolutionCodec.LEFT -> col--;
+                    default -> col++;
+                }
+                visitor.visit(row, col);
+            }
+            step += length;
+        }
+    }
+
+    /**
+     * Returns the path as maze states, decoding it on first call.
+     *
+     * @return The list of states from start to goal
+     */
+    @Override
+    public synchronized ArrayList<AState> getSolutionPath() {
+        if (path == null) {
+            ArrayList<AState> states = new ArrayList<>(getLength());
+            forEachCell((row, col) -> states.add(new MazeState(new Position(row, col))));
+            path = states;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,166 @@
+package algorithms.search;
+
+import IO.SolutionCodec;
+
+/**
+ * The direction of the next step towards the goal for every cell of a maze, found by one breadth-first
+ * search backwards from the goal. Following the directions from any cell walks a shortest path to the goal,
+ * so once the field is built the next best step is a lookup and the path from a cell costs its length.
+ * <p>
+ * The field keeps 2 bits per cell for the direction, in the codes of {@link SolutionCodec}, and 1 bit per cell
+ * for whether the goal can be reached from it. Distances are not stored; {@link #getDistance} walks the path.
+ */
+public class DistanceField {
+    private final MazeGrid grid;
+    private final long[] steps;
+    private final long[] reachable;
+
+    /**
+     * Builds the field of a grid.
+     *
+     * @param grid The maze grid
+     */
+    private DistanceField(MazeGrid grid) {
+        this.grid = grid;
+        int cells = grid.getCellCount();
+        steps = new long[(cells + 31) >>> 5];
+        reachable = new long[(cells + 63) >>> 6];
+
+        SearchWorkspace workspace = SearchWorkspace.get(cells);
+        int[] queue = workspace.queue(1024);
+        int mask = queue.length - 1;
+        int goal = grid.getGoal();
+        reachable[goal >>> 6] |= 1L << goal;
+        queue[0] = goal;
+        int head = 0;
+        int size = 1;
+        while (size > 0) {
+            int cell = queue[head];
+            head = (head + 1) & mask;
+            size--;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = cell + grid.getStep(direction);
+                long bit = 1L << next;
+                if ((reachable[next >>> 6] & bit) != 0 || !grid.isOpen(next))
+                    continue;
+                reachable[next >>> 6] |= bit;
+                // the step back from next to cell is the opposite direction
+                steps[next >>> 5] |= (long) (direction ^ 1) << ((next & 31) << 1);
+                if (size == queue.length) {
+                    queue = workspace.growQueue(head);
+                    mask = queue.length - 1;
+                    head = 0;
+                }
+                queue[(head + size) & mask] = next;
+                size++;
+            }
+        }
+    }
+
+    /**
+     * Builds the field of a grid with a breadth-first search from its goal.
+     *
+     * @param grid The maze grid
+     * @return The field
+     */
+    public static DistanceField of(MazeGrid grid) {
+        return new DistanceField(grid);
+    }
+
+    /**
+     * Returns the direction of the next step from a cell on a shortest path to the goal.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return One of {@link SolutionCodec#UP}, {@link SolutionCodec#DOWN}, {@link SolutionCodec#LEFT},
+     * {@link SolutionCodec#RIGHT}, or -1 at the goal, outside the maze or if the goal cannot be reached
+     */
+    public int getNextStep(int row, int col) {
+        int cell = cellOf(row, col);
+        if (cell < 0 || cell == grid.getGoal() || !isReachable(cell))
+            return -1;
+        return step(cell);
+    }
+
+    /**
+     * Returns whether the goal can be reached from a cell.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return true if the cell is open and connected to the goal
+     */
+    public boolean canReachGoal(int row, int col) {
+        int cell = cellOf(row, col);
+        return cell >= 0 && isReachable(cell);
+    }
+
+    /**
+     * Returns the number of steps from a cell to the goal, by walking the path.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return The number of steps, or -1 if the goal cannot be reached
+     */
+    public int getDistance(int row, int col) {
+        int cell = cellOf(row, col);
+        if (cell < 0 || !isReachable(cell))
+            return -1;
+        int distance = 0;
+        for (int goal = grid.getGoal(); cell != goal; cell += grid.getStep(step(cell)))
+            distance++;
+        return distance;
+    }
+
+    /**
+     * Returns a shortest path from a cell to the goal, kept compact as direction codes.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return The solution from the cell, or an empty solution if the goal cannot be reached
+     */
+    public CompactSolution solutionFrom(int row, int col) {
+        int distance = getDistance(row, col);
+        if (distance < 0)
+            return new CompactSolution(SolutionCodec.encode(0, 0, new byte[0], true));
+        byte[] directions = new byte[distance];
+        int cell = cellOf(row, col);
+        for (int i = 0; i < distance; i++) {
+            directions[i] = (byte) step(cell);
+            cell += grid.getStep(directions[i]);
+        }
+        return new CompactSolution(SolutionCodec.encode(row, col, directions, false));
+    }
+
+    /**
+     * Returns the cell index of a maze position.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return Cell index, or -1 if the position is outside the maze
+     */
+    private int cellOf(int row, int col) {
+        if (row < 0 || col < 0 || row >= grid.getRows() || col >= grid.getCols())
+            return -1;
+        return grid.index(row, col);
+    }
+
+    /**
+     * Returns whether the goal can be reached from a cell.
+     *
+     * @param cell Cell index
+     * @return true if it can
+     */
+    private boolean isReachable(int cell) {
+        return (reachable[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Returns the stored direction of a cell.
+     *
+     * @param cell Cell index
+     * @return Direction code
+     */
+    private int step(int cell) {
+        return (int) (steps[cell >>> 5] >>> ((cell & 31) << 1)) & 3;
+    }
+}
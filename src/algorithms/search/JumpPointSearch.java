@@ -0,0 +1,166 @@
+package algorithms.search;
+
+/**
+ * A* over the jump points of a {@link MazeGrid}, with the Manhattan distance to the goal as heuristic.
+ * In a 4-connected maze a straight or bending corridor has only one way on, so instead of queueing
+ * every corridor cell the search jumps: from a jump point it follows each corridor, turns included,
+ * until it reaches a junction (a cell with three or more open neighbors), the start or the goal.
+ * Only those cells enter the heap, with the corridor length as cost. Corridors that end in a dead end
+ * are walked once and dropped without a heap operation.
+ * <p>
+ * For every jump point the search keeps its parent jump point and the direction it left the parent in,
+ * and the full cell-by-cell path is rebuilt by walking those corridors again.
+ */
+public class JumpPointSearch extends AGridSearch {
+    private MazeGrid grid;
+    private int jumpLength;
+
+    /**
+     * Searches the jump points until the goal is taken from the open set.
+     *
+     * @param grid The maze grid
+     * @return The cells of a shortest path from start to goal, or null if the goal cannot be reached
+     */
+    @Override
+    protected int[] findPath(MazeGrid grid) {
+        SearchWorkspace workspace = SearchWorkspace.get(grid.getCellCount());
+        int cells = grid.getCellCount();
+        long[] reached = workspace.visited(cells);
+        byte[] directions = workspace.directions(cells);
+        int[] distances = workspace.distances(cells);
+        int[] parents = workspace.parents(cells);
+        long[] heap = workspace.heap(1024);
+        int start = grid.getStart();
+        int goal = grid.getGoal();
+        int goalRow = grid.rowOf(goal);
+        int goalCol = grid.colOf(goal);
+        this.grid = grid;
+
+        reached[start >>> 6] |= 1L << start;
+        distances[start] = 0;
+        heap[0] = (long) estimate(grid, start, goalRow, goalCol) << 32 | start;
+        int size = 1;
+        int evaluated = 0;
+        boolean found = false;
+        while (size > 0) {
+            long entry = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            int cell = (int) entry;
+            int distance = distances[cell];
+            if ((int) (entry >>> 32) != distance + estimate(grid, cell, goalRow, goalCol))
+                continue; // stale entry, the jump point was reached more cheaply since
+            evaluated++;
+            if (cell == goal) {
+                found = true;
+                break;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int next = jump(cell, direction);
+                if (next < 0)
+                    continue;
+                int nextDistance = distance + jumpLength;
+                long bit = 1L << next;
+                if ((reached[next >>> 6] & bit) != 0 && distances[next] <= nextDistance)
+                    continue;
+                reached[next >>> 6] |= bit;
+                distances[next] = nextDistance;
+                parents[next] = cell;
+                directions[next] = (byte) direction;
+                if (size == heap.length)
+                    heap = workspace.growHeap();
+                heap[size] = (long) (nextDistance + estimate(grid, next, goalRow, goalCol)) << 32 | next;
+                siftUp(heap, size++);
+            }
+        }
+        setNumOfNodes(evaluated);
+        int[] path = found ? walkPath(parents, directions, distances) : null;
+        this.grid = null;
+        return path;
+    }
+
+    /**
+     * Follows the corridor leaving a jump point in a direction, and sets {@link #jumpLength} to its length.
+     *
+     * @param from      The jump point
+     * @param direction Direction to leave it in
+     * @return The jump point the corridor leads to, or -1 if it is walled off or ends in a dead end
+     */
+    private int jump(int from, int direction) {
+        int start = grid.getStart();
+        int goal = grid.getGoal();
+        int cell = from + grid.getStep(direction);
+        if (!grid.isOpen(cell))
+            return -1;
+        int length = 1;
+        while (cell != goal && cell != start) {
+            int exit = singleExit(cell, direction);
+            if (exit == -1)
+                return -1; // dead end
+            if (exit == -2)
+                break; // junction
+            direction = exit;
+            cell += grid.getStep(direction);
+            length++;
+        }
+        jumpLength = length;
+        return cell;
+    }
+
+    /**
+     * Returns the only way on from a cell entered in a direction.
+     *
+     * @param cell      The cell
+     * @param direction Direction the cell was entered in
+     * @return The direction of the only open neighbor other than the one behind,
+     * -1 if there is none and -2 if there are several
+     */
+    private int singleExit(int cell, int direction) {
+        int back = direction ^ 1;
+        int exit = -1;
+        for (int next = 0; next < 4; next++) {
+            if (next == back || !grid.isOpen(cell + grid.getStep(next)))
+                continue;
+            if (exit != -1)
+                return -2;
+            exit = next;
+        }
+        return exit;
+    }
+
+    /**
+     * Rebuilds the cell-by-cell path by walking the corridors between the jump points on it.
+     *
+     * @param parents    For every reached jump point, the jump point it was reached from
+     * @param directions For every reached jump point, the direction its parent was left in
+     * @param distances  For every reached jump point, the number of moves from the start
+     * @return The cells from start to goal
+     */
+    private int[] walkPath(int[] parents, byte[] directions, int[] distances) {
+        int start = grid.getStart();
+        int[] path = new int[distances[grid.getGoal()] + 1];
+        for (int point = grid.getGoal(); point != start; point = parents[point]) {
+            int position = distances[parents[point]] + 1;
+            int direction = directions[point];
+            int cell = parents[point] + grid.getStep(direction);
+            while (cell != point) {
+                path[position++] = cell;
+                direction = singleExit(cell, direction);
+                cell += grid.getStep(direction);
+            }
+            path[position] = point;
+        }
+        path[0] = start;
+        return path;
+    }
+
+    /**
+     * Returns the algorithm's name.
+     *
+     * @return The name
+     */
+    @Override
+    public String getName() {
+        return "JumpPointSearch";
+    }
+}
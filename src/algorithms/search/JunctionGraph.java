@@ -0,0 +1,401 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.Position;
+
+import java.util.Arrays;
+
+/**
+ * A maze reduced to its junctions (cells with three or more open neighbors) and the corridors between them.
+ * Every corridor, straight or bending, becomes one weighted edge, and corridors that end in a dead end
+ * are left out, so a search through the graph touches only junctions.
+ * <p>
+ * The graph is built once per maze and can then answer any number of queries between any two cells:
+ * a cell inside a corridor is attached to the junctions at the ends of its corridor, the junctions are
+ * searched with A*, and the path is expanded back into cells by walking the chosen corridors again.
+ * Queries keep their scratch arrays in the calling thread's {@link SearchWorkspace}, so a graph may be
+ * queried from several threads at once.
+ */
+public class JunctionGraph {
+    private static final long NO_CORRIDOR = -1L;
+    private final MazeGrid grid;
+    private final int[] junctions;
+    private final int[] firstEdge;
+    private final int[] edgeTarget;
+    private final int[] edgeLength;
+    private final byte[] edgeDirection;
+
+    /**
+     * Builds the junction graph of a grid.
+     *
+     * @param grid The maze grid
+     */
+    private JunctionGraph(MazeGrid grid) {
+        this.grid = grid;
+        int cells = grid.getCellCount();
+        int count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (isJunction(cell))
+                count++;
+        }
+        junctions = new int[count];
+        count = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (isJunction(cell))
+                junctions[count++] = cell;
+        }
+
+        firstEdge = new int[junctions.length + 1];
+        int[] targets = new int[4 * junctions.length];
+        int[] lengths = new int[targets.length];
+        byte[] directions = new byte[targets.length];
+        int edges = 0;
+        for (int junction = 0; junction < junctions.length; junction++) {
+            firstEdge[junction] = edges;
+            for (int direction = 0; direction < 4; direction++) {
+                long corridor = walk(junctions[junction], direction, -1, -1);
+                if (corridor == NO_CORRIDOR || (int) corridor == junctions[junction])
+                    continue; // dead end, or a loop back to the same junction
+                targets[edges] = node((int) corridor);
+                lengths[edges] = (int) (corridor >>> 32);
+                directions[edges] = (byte) direction;
+                edges++;
+            }
+        }
+        firstEdge[junctions.length] = edges;
+        edgeTarget = Arrays.copyOf(targets, edges);
+        edgeLength = Arrays.copyOf(lengths, edges);
+        edgeDirection = Arrays.copyOf(directions, edges);
+    }
+
+    /**
+     * Builds the junction graph of a grid.
+     *
+     * @param grid The maze grid
+     * @return The graph
+     */
+    public static JunctionGraph of(MazeGrid grid) {
+        return new JunctionGraph(grid);
+    }
+
+    /**
+     * Finds a shortest path between two cells of the maze.
+     *
+     * @param from Start position
+     * @param to   Goal position
+     * @return The path, or an empty solution if the goal cannot be reached from the start
+     * @throws IllegalArgumentException If a position is outside the maze
+     */
+    public Solution solve(Position from, Position to) {
+        return grid.toSolution(findPath(cellOf(from), cellOf(to)));
+    }
+
+    /**
+     * Finds a shortest path between two cells of the grid.
+     *
+     * @param from Start cell index
+     * @param to   Goal cell index
+     * @return The cells from start to goal, or null if the goal cannot be reached or either cell is a wall
+     */
+    public int[] findPath(int from, int to) {
+        if (!grid.isOpen(from) || !grid.isOpen(to))
+            return null;
+        if (from == to)
+            return new int[]{from};
+        int best = Integer.MAX_VALUE;
+        int directDirection = -1;
+
+        // the junctions the start is attached to: itself, or the ends of its corridor
+        int[] sourceNodes = new int[2];
+        int[] sourceLengths = new int[2];
+        int[] sourceDirections = new int[2];
+        int sources = 0;
+        boolean fromJunction = isJunction(from);
+        if (fromJunction) {
+            sourceNodes[sources] = node(from);
+            sourceDirections[sources++] = -1;
+        } else {
+            for (int direction = 0; direction < 4; direction++) {
+                long corridor = walk(from, direction, from, to);
+                if (corridor == NO_CORRIDOR || (int) corridor == from)
+                    continue;
+                int length = (int) (corridor >>> 32);
+                if ((int) corridor == to) {
+                    if (length < best) {
+                        best = length;
+                        directDirection = direction;
+                    }
+                    continue;
+                }
+                sourceNodes[sources] = node((int) corridor);
+                sourceLengths[sources] = length;
+                sourceDirections[sources++] = direction;
+            }
+        }
+        int[] targetNodes = new int[2];
+        int[] targetLengths = new int[2];
+        int[] targetDirections = new int[2];
+        int targets = 0;
+        if (isJunction(to)) {
+            targetNodes[targets] = node(to);
+            targetDirections[targets++] = -1;
+        } else {
+            for (int direction = 0; direction < 4; direction++) {
+                long corridor = walk(to, direction, to, from);
+                if (corridor == NO_CORRIDOR || (int) corridor == to)
+                    continue;
+                if ((int) corridor == from && !fromJunction)
+                    continue; // the start's own corridor, already walked as a direct path
+                targetNodes[targets] = node((int) corridor);
+                targetLengths[targets] = (int) (corridor >>> 32);
+                targetDirections[targets++] = direction;
+            }
+        }
+
+        SearchWorkspace workspace = SearchWorkspace.get(junctions.length);
+        long[] reached = workspace.visited(junctions.length);
+        int[] distances = workspace.distances(junctions.length);
+        int[] parents = workspace.parents(junctions.length);
+        long[] heap = workspace.heap(1024);
+        int goalRow = grid.rowOf(to);
+        int goalCol = grid.colOf(to);
+        int size = 0;
+        for (int source = 0; source < sources; source++) {
+            int node = sourceNodes[source];
+            if ((reached[node >>> 6] & (1L << node)) != 0 && distances[node] <= sourceLengths[source])
+                continue;
+            reached[node >>> 6] |= 1L << node;
+            distances[node] = sourceLengths[source];
+            parents[node] = -1 - source;
+            heap[size] = (long) (sourceLengths[source] + AGridSearch.estimate(grid, junctions[node], goalRow, goalCol)) << 32 | node;
+            AGridSearch.siftUp(heap, size++);
+        }
+        int bestNode = -1;
+        int bestTarget = -1;
+        while (size > 0) {
+            long entry = heap[0];
+            heap[0] = heap[--size];
+            AGridSearch.siftDown(heap, size);
+            int node = (int) entry;
+            int distance = distances[node];
+            int estimate = (int) (entry >>> 32);
+            if (estimate != distance + AGridSearch.estimate(grid, junctions[node], goalRow, goalCol))
+                continue; // stale entry, the junction was reached more cheaply since
+            if (estimate >= best)
+                break;
+            for (int target = 0; target < targets; target++) {
+                if (targetNodes[target] == node && distance + targetLengths[target] < best) {
+                    best = distance + targetLengths[target];
+                    bestNode = node;
+                    bestTarget = target;
+                }
+            }
+            for (int edge = firstEdge[node]; edge < firstEdge[node + 1]; edge++) {
+                int next = edgeTarget[edge];
+                int nextDistance = distance + edgeLength[edge];
+                long bit = 1L << next;
+                if ((reached[next >>> 6] & bit) != 0 && distances[next] <= nextDistance)
+                    continue;
+                reached[next >>> 6] |= bit;
+                distances[next] = nextDistance;
+                parents[next] = edge;
+                if (size == heap.length)
+                    heap = workspace.growHeap();
+                heap[size] = (long) (nextDistance + AGridSearch.estimate(grid, junctions[next], goalRow, goalCol)) << 32 | next;
+                AGridSearch.siftUp(heap, size++);
+            }
+        }
+        if (best == Integer.MAX_VALUE)
+            return null;
+
+        int[] path = new int[best + 1];
+        path[0] = from;
+        if (bestNode == -1) {
+            walkInto(path, 1, from, directDirection, to);
+            return path;
+        }
+        int edges = 0;
+        int node = bestNode;
+        while (parents[node] >= 0) {
+            node = junctionOf(parents[node]);
+            edges++;
+        }
+        int[] route = new int[edges];
+        for (int step = edges - 1, at = bestNode; step >= 0; step--) {
+            route[step] = parents[at];
+            at = junctionOf(parents[at]);
+        }
+        int position = 1;
+        int source = -1 - parents[node];
+        if (sourceDirections[source] >= 0)
+            position = walkInto(path, position, from, sourceDirections[source], junctions[node]);
+        for (int edge : route)
+            position = walkInto(path, position, junctions[junctionOf(edge)], edgeDirection[edge], junctions[edgeTarget[edge]]);
+        if (targetDirections[bestTarget] >= 0) {
+            // walk from the goal back to the junction and write the corridor in reverse
+            int end = path.length - 1;
+            int direction = targetDirections[bestTarget];
+            int cell = to;
+            while (cell != junctions[bestNode]) {
+                path[end--] = cell;
+                cell += grid.getStep(direction);
+                if (cell != junctions[bestNode])
+                    direction = singleExit(cell, direction);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of junctions.
+     *
+     * @return Number of junctions
+     */
+    public int getJunctionCount() {
+        return junctions.length;
+    }
+
+    /**
+     * Returns the number of corridors between junctions.
+     *
+     * @return Number of corridors
+     */
+    public int getCorridorCount() {
+        return edgeTarget.length / 2;
+    }
+
+    /**
+     * Returns the grid the graph was built from.
+     *
+     * @return The maze grid
+     */
+    public MazeGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the cell index of a maze position.
+     *
+     * @param position A position in the maze
+     * @return Cell index
+     * @throws IllegalArgumentException If the position is outside the maze
+     */
+    private int cellOf(Position position) {
+        int row = position.getRowIndex();
+        int col = position.getColumnIndex();
+        if (row < 0 || col < 0 || row >= grid.getRows() || col >= grid.getCols())
+            throw new IllegalArgumentException("Position is outside the maze: " + position);
+        return grid.index(row, col);
+    }
+
+    /**
+     * Returns whether a cell is an open cell with three or more open neighbors.
+     *
+     * @param cell Cell index
+     * @return true if the cell is a junction
+     */
+    private boolean isJunction(int cell) {
+        if (!grid.isOpen(cell))
+            return false;
+        int open = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if (grid.isOpen(cell + grid.getStep(direction)))
+                open++;
+        }
+        return open >= 3;
+    }
+
+    /**
+     * Returns the graph node of a junction cell.
+     *
+     * @param cell Cell index of a junction
+     * @return Node index
+     */
+    private int node(int cell) {
+        return Arrays.binarySearch(junctions, cell);
+    }
+
+    /**
+     * Returns the junction an edge leaves from.
+     *
+     * @param edge Edge index
+     * @return Node index
+     */
+    private int junctionOf(int edge) {
+        int node = Arrays.binarySearch(firstEdge, edge);
+        if (node < 0)
+            return -node - 2;
+        while (node + 1 < firstEdge.length && firstEdge[node + 1] == edge)
+            node++; // skip junctions without edges
+        return node;
+    }
+
+    /**
+     * Follows the corridor leaving a cell in a direction until a junction, a dead end or one of two stop cells.
+     *
+     * @param from      The cell to leave
+     * @param direction Direction to leave it in
+     * @param stop      A cell to stop at, or -1
+     * @param otherStop Another cell to stop at, or -1
+     * @return The cell the corridor ends at in the low half and its length in the high half,
+     * or {@link #NO_CORRIDOR} if it is walled off or ends in a dead end
+     */
+    private long walk(int from, int direction, int stop, int otherStop) {
+        int cell = from + grid.getStep(direction);
+        if (!grid.isOpen(cell))
+            return NO_CORRIDOR;
+        int length = 1;
+        while (cell != stop && cell != otherStop) {
+            int exit = singleExit(cell, direction);
+            if (exit == -1)
+                return NO_CORRIDOR;
+            if (exit == -2)
+                break;
+            direction = exit;
+            cell += grid.getStep(direction);
+            length++;
+        }
+        return (long) length << 32 | cell;
+    }
+
+    /**
+     * Writes the cells of a corridor into a path.
+     *
+     * @param path      The path
+     * @param position  Where the first cell after the starting cell goes
+     * @param from      The cell the corridor leaves
+     * @param direction Direction it leaves in
+     * @param end       The cell the corridor ends at, written last
+     * @return The position after the end cell
+     */
+    private int walkInto(int[] path, int position, int from, int direction, int end) {
+        int cell = from + grid.getStep(direction);
+        while (cell != end) {
+            path[position++] = cell;
+            direction = singleExit(cell, direction);
+            cell += grid.getStep(direction);
+        }
+        path[position++] = end;
+        return position;
+    }
+
+    /**
+     * Returns the only way on from a cell entered in a direction.
+     *
+     * @param cell      The cell
+     * @param direction Direction the cell was entered in
+     * @return The direction of the only open neighbor other than the one behind,
+     * -1 if there is none and -2 if there are several
+     */
+    private int singleExit(int cell, int direction) {
+        int back = direction ^ 1;
+        int exit = -1;
+        for (int next = 0; next < 4; next++) {
+            if (next == back || !grid.isOpen(cell + grid.getStep(next)))
+                continue;
+            if (exit != -1)
+                return -2;
+            exit = next;
+        }
+        return exit;
+    }
+}
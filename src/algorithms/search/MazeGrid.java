@@ -0,0 +1,260 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.BitMaze;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A maze as a flat grid of cells for the int-index based solvers.
+ * Walls are kept one bit per cell, and the grid is surrounded by a border of walls, so a neighbor
+ * is always {@code cell + getStep(direction)} and never needs a bounds check.
+ * Cell indices therefore refer to the padded grid; use {@link #index}, {@link #rowOf} and
+ * {@link #colOf} to convert from and to maze coordinates.
+ * <p>
+ * As an {@link ISearchable} it creates states on demand and keeps no per-state search marks,
+ * so it is meant for solvers extending {@link AGridSearch}, not for the object-based ones.
+ */
+public class MazeGrid implements ISearchable {
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    private final int rows;
+    private final int cols;
+    private final int width;
+    private final long[] walls;
+    private final int[] steps;
+    private final int start;
+    private final int goal;
+
+    /**
+     * Constructs a grid with every cell a wall.
+     *
+     * @param rows  Number of rows
+     * @param cols  Number of columns
+     * @param start Start position
+     * @param goal  Goal position
+     */
+    private MazeGrid(int rows, int cols, Position start, Position goal) {
+        if ((long) (rows + 2) * (cols + 2) > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze is too large for a grid: " + rows + "x" + cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.width = cols + 2;
+        this.walls = new long[(int) (((long) (rows + 2) * width + 63) >>> 6)];
+        Arrays.fill(walls, -1L);
+        this.steps = new int[]{-width, width, -1, 1};
+        this.start = index(start.getRowIndex(), start.getColumnIndex());
+        this.goal = index(goal.getRowIndex(), goal.getColumnIndex());
+    }
+
+    /**
+     * Builds the grid of a maze.
+     *
+     * @param maze The maze
+     * @return The grid
+     */
+    public static MazeGrid of(Maze maze) {
+        int[][] mazeArray = maze.getMazeArray();
+        MazeGrid grid = new MazeGrid(mazeArray.length, mazeArray[0].length, maze.getStartPosition(), maze.getGoalPosition());
+        for (int row = 0; row < grid.rows; row++) {
+            int[] mazeRow = mazeArray[row];
+            int cell = grid.index(row, 0);
+            for (int col = 0; col < grid.cols; col++, cell++) {
+                if (mazeRow[col] == 0)
+                    grid.walls[cell >>> 6] &= ~(1L << cell);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Builds the grid of a bit-packed maze.
+     *
+     * @param maze The maze
+     * @return The grid
+     */
+    public static MazeGrid of(BitMaze maze) {
+        MazeGrid grid = new MazeGrid(maze.getRows(), maze.getCols(), maze.getStartPosition(), maze.getGoalPosition());
+        for (int row = 0; row < grid.rows; row++) {
+            int cell = grid.index(row, 0);
+            for (int col = 0; col < grid.cols; col++, cell++) {
+                if (maze.isPath(row, col))
+                    grid.walls[cell >>> 6] &= ~(1L << cell);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns whether a cell can be walked on. Border cells are walls.
+     *
+     * @param cell Cell index
+     * @return true if the cell is a path cell
+     */
+    public boolean isOpen(int cell) {
+        return (walls[cell >>> 6] & (1L << cell)) == 0;
+    }
+
+    /**
+     * Returns the index difference to the neighbor in a direction.
+     *
+     * @param direction One of {@link #UP}, {@link #DOWN}, {@link #LEFT}, {@link #RIGHT}
+     * @return The step to add to a cell index
+     */
+    public int getStep(int direction) {
+        return steps[direction];
+    }
+
+    /**
+     * Returns the index of a maze cell.
+     *
+     * @param row Row in the maze
+     * @param col Column in the maze
+     * @return Cell index
+     */
+    public int index(int row, int col) {
+        return (row + 1) * width + col + 1;
+    }
+
+    /**
+     * Returns the maze row of a cell.
+     *
+     * @param cell Cell index
+     * @return Row in the maze
+     */
+    public int rowOf(int cell) {
+        return cell / width - 1;
+    }
+
+    /**
+     * Returns the maze column of a cell.
+     *
+     * @param cell Cell index
+     * @return Column in the maze
+     */
+    public int colOf(int cell) {
+        return cell % width - 1;
+    }
+
+    /**
+     * Returns the number of cell indices, border included; every index is below it.
+     *
+     * @return Number of cell indices
+     */
+    public int getCellCount() {
+        return (rows + 2) * width;
+    }
+
+    /**
+     * Returns the number of rows of the maze.
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns of the maze.
+     *
+     * @return Number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the index of the start cell.
+     *
+     * @return Cell index
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the index of the goal cell.
+     *
+     * @return Cell index
+     */
+    public int getGoal() {
+        return goal;
+    }
+
+    /**
+     * Converts a path of cell indices to a {@link Solution} of maze states.
+     *
+     * @param path Cells from start to goal, or null if there is no path
+     * @return The solution, empty if there is no path
+     */
+    public Solution toSolution(int[] path) {
+        ArrayList<AState> states = new ArrayList<>(path == null ? 0 : path.length);
+        if (path != null) {
+            for (int cell : path)
+                states.add(state(cell));
+        }
+        return new Solution(states);
+    }
+
+    /**
+     * Creates the state of a cell.
+     *
+     * @param cell Cell index
+     * @return A new maze state
+     */
+    private MazeState state(int cell) {
+        return new MazeState(new Position(rowOf(cell), colOf(cell)));
+    }
+
+    /**
+     * Returns a new state for the start cell.
+     *
+     * @return The start state
+     */
+    @Override
+    public AState getStartPoint() {
+        return state(start);
+    }
+
+    /**
+     * Returns a new state for the goal cell.
+     *
+     * @return The goal state
+     */
+    @Override
+    public AState getGoalPoint() {
+        return state(goal);
+    }
+
+    /**
+     * Returns the cost of a move, which the grid does not weigh.
+     *
+     * @return 0, as SearchableMaze does
+     */
+    @Override
+    public int getCost() {
+        return 0;
+    }
+
+    /**
+     * Returns new states for the open neighbors of a state, in the four straight directions.
+     *
+     * @param state A maze state
+     * @return The neighboring states
+     */
+    @Override
+    public ArrayList<AState> getAllPossibleStates(AState state) {
+        ArrayList<AState> neighbors = new ArrayList<>(4);
+        int cell = index(state.getRow(), state.getCol());
+        for (int direction = 0; direction < 4; direction++) {
+            if (isOpen(cell + steps[direction]))
+                neighbors.add(state(cell + steps[direction]));
+        }
+        return neighbors;
+    }
+}
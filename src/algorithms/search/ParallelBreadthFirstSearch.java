@@ -0,0 +1,230 @@
+package algorithms.search;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Level-synchronous breadth-first search over a {@link MazeGrid} that spreads each frontier level
+ * across a {@link ForkJoinPool}. Cells are claimed with a compare-and-set on the visited bitset,
+ * so every cell is reached exactly once and the direction of the claiming move is the only write
+ * to its entry in the direction array; the path is traced back from it as in the sequential search.
+ * <p>
+ * A level only pays for forking when it is large: levels smaller than {@link #PARALLEL_LEVEL} cells
+ * are expanded on the calling thread without atomics, as {@link PrimitiveBreadthFirstSearch} would.
+ * Perfect mazes such as MyMazeGenerator's are narrow corridors whose levels stay a few dozen cells
+ * wide, so they are solved almost entirely on the calling thread; the gain is on open mazes.
+ */
+public class ParallelBreadthFirstSearch extends AGridSearch {
+    /** Smallest frontier level that is split across the pool. */
+    static final int PARALLEL_LEVEL = 2048;
+    /** Number of frontier cells a single task expands. */
+    private static final int CHUNK = 1024;
+    /** Cells a task collects before reserving room for them in the next level. */
+    private static final int BUFFER = 256;
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final ThreadLocal<int[]> buffers = ThreadLocal.withInitial(() -> new int[BUFFER]);
+
+    private final ForkJoinPool pool;
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private MazeGrid grid;
+    private long[] visited;
+    private byte[] directions;
+    private int[] current;
+    private int[] next;
+    private volatile boolean found;
+
+    /**
+     * Constructs a search on the common pool.
+     */
+    public ParallelBreadthFirstSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a search on the given pool.
+     *
+     * @param pool The pool that expands large frontier levels
+     */
+    public ParallelBreadthFirstSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Searches the grid level by level from the start until a level reaches the goal.
+     *
+     * @param grid The maze grid
+     * @return The cells of a shortest path from start to goal, or null if the goal cannot be reached
+     */
+    @Override
+    protected int[] findPath(MazeGrid grid) {
+        SearchWorkspace workspace = SearchWorkspace.get(grid.getCellCount());
+        int cells = grid.getCellCount();
+        this.grid = grid;
+        visited = workspace.visited(cells);
+        directions = workspace.directions(cells);
+        int start = grid.getStart();
+        int goal = grid.getGoal();
+        found = start == goal;
+
+        visited[start >>> 6] |= 1L << start;
+        current = workspace.level(0, 16);
+        current[0] = start;
+        int size = 1;
+        int which = 0;
+        int evaluated = 0;
+        while (size > 0 && !found) {
+            // every cell but the start has a visited parent, so it adds at most 3 cells
+            next = workspace.level(which ^ 1, 3 * size + 4);
+            if (size < PARALLEL_LEVEL) {
+                evaluated += size;
+                size = expandOnCaller(size);
+            } else {
+                nextSize.set(0);
+                pool.invoke(new LevelTask(0, size));
+                evaluated += size;
+                size = nextSize.get();
+            }
+            current = next;
+            which ^= 1;
+        }
+        setNumOfNodes(evaluated);
+        int[] path = found ? tracePath(grid, directions, goal) : null;
+        this.grid = null;
+        visited = null;
+        directions = null;
+        current = null;
+        next = null;
+        return path;
+    }
+
+    /**
+     * Expands the whole current level on the calling thread, with plain reads and writes.
+     *
+     * @param size Number of cells in the current level
+     * @return Number of cells in the next level
+     */
+    private int expandOnCaller(int size) {
+        int goal = grid.getGoal();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int cell = current[i];
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbor = cell + grid.getStep(direction);
+                long bit = 1L << neighbor;
+                if ((visited[neighbor >>> 6] & bit) != 0 || !grid.isOpen(neighbor))
+                    continue;
+                visited[neighbor >>> 6] |= bit;
+                directions[neighbor] = (byte) direction;
+                if (neighbor == goal)
+                    found = true;
+                next[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Expands a range of the current level in a pool task, appending the cells it claims to the next level.
+     *
+     * @param from First index in the current level
+     * @param to   Index after the last one
+     */
+    private void expand(int from, int to) {
+        int[] buffer = buffers.get();
+        int buffered = 0;
+        int goal = grid.getGoal();
+        for (int i = from; i < to; i++) {
+            int cell = current[i];
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbor = cell + grid.getStep(direction);
+                if (!grid.isOpen(neighbor) || !claim(neighbor))
+                    continue;
+                directions[neighbor] = (byte) direction;
+                if (neighbor == goal)
+                    found = true;
+                if (buffered == BUFFER) {
+                    flush(buffer, buffered);
+                    buffered = 0;
+                }
+                buffer[buffered++] = neighbor;
+            }
+        }
+        flush(buffer, buffered);
+    }
+
+    /**
+     * Marks a cell visited unless another task already did.
+     *
+     * @param cell Cell index
+     * @return true if this call marked it
+     */
+    private boolean claim(int cell) {
+        int index = cell >>> 6;
+        long bit = 1L << cell;
+        long word = visited[index];
+        while ((word & bit) == 0) {
+            long witness = (long) WORDS.compareAndExchange(visited, index, word, word | bit);
+            if (witness == word)
+                return true;
+            word = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Copies collected cells into the next level.
+     *
+     * @param buffer The collected cells
+     * @param count  Number of cells in the buffer
+     */
+    private void flush(int[] buffer, int count) {
+        if (count > 0)
+            System.arraycopy(buffer, 0, next, nextSize.getAndAdd(count), count);
+    }
+
+    /**
+     * Returns the algorithm's name.
+     *
+     * @return The name
+     */
+    @Override
+    public String getName() {
+        return "ParallelBreadthFirstSearch";
+    }
+
+    /**
+     * Expands a range of the current level, splitting it in halves down to {@link #CHUNK} cells.
+     */
+    private class LevelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task for a range of the current level.
+         *
+         * @param from First index in the current level
+         * @param to   Index after the last one
+         */
+        private LevelTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Expands the range, forking half of it while it is larger than a chunk.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                expand(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new LevelTask(from, middle), new LevelTask(middle, to));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package algorithms.search;
+
+/**
+ * Breadth-first search over a {@link MazeGrid} with primitive arrays only: a visited bitset,
+ * the direction that reached each cell in a byte[] and a ring-buffer queue of int cell indices.
+ * The arrays come from the thread's {@link SearchWorkspace}, so repeated solves allocate
+ * nothing but the grid and the returned path.
+ */
+public class PrimitiveBreadthFirstSearch extends AGridSearch {
+
+    /**
+     * Searches the grid breadth-first from the start until the goal is reached.
+     *
+     * @param grid The maze grid
+     * @return The cells of a shortest path from start to goal, or null if the goal cannot be reached
+     */
+    @Override
+    protected int[] findPath(MazeGrid grid) {
+        SearchWorkspace workspace = SearchWorkspace.get(grid.getCellCount());
+        int cells = grid.getCellCount();
+        long[] visited = workspace.visited(cells);
+        byte[] directions = workspace.directions(cells);
+        int[] queue = workspace.queue(1024);
+        int mask = queue.length - 1;
+        int start = grid.getStart();
+        int goal = grid.getGoal();
+
+        visited[start >>> 6] |= 1L << start;
+        queue[0] = start;
+        int head = 0;
+        int size = 1;
+        int evaluated = 0;
+        boolean found = start == goal;
+        while (size > 0 && !found) {
+            int cell = queue[head];
+            head = (head + 1) & mask;
+            size--;
+            evaluated++;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = cell + grid.getStep(direction);
+                long bit = 1L << next;
+                if ((visited[next >>> 6] & bit) != 0 || !grid.isOpen(next))
+                    continue;
+                visited[next >>> 6] |= bit;
+                directions[next] = (byte) direction;
+                if (next == goal) {
+                    found = true;
+                    break;
+                }
+                if (size == queue.length) {
+                    queue = workspace.growQueue(head);
+                    mask = queue.length - 1;
+                    head = 0;
+                }
+                queue[(head + size) & mask] = next;
+                size++;
+            }
+        }
+        setNumOfNodes(evaluated);
+        return found ? tracePath(grid, directions, goal) : null;
+    }
+
+    /**
+     * Returns the algorithm's name.
+     *
+     * @return The name
+     */
+    @Override
+    public String getName() {
+        return "PrimitiveBreadthFirstSearch";
+    }
+}
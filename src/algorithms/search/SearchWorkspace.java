@@ -0,0 +1,200 @@
+package algorithms.search;
+
+import java.util.Arrays;
+
+/**
+ * Scratch arrays of the grid solvers, kept per thread and reused across solves so a solve
+ * does not allocate arrays proportional to the maze size once the thread has seen a maze that big.
+ * Arrays only grow; their contents are not cleared unless stated.
+ * <p>
+ * Only searches of up to {@link #MAX_RETAINED_CELLS} cells (system property {@code maze.search.maxRetainedCells})
+ * use the thread's workspace. A larger search gets a workspace of its own that is dropped with it,
+ * so one huge maze does not leave every worker thread holding its arrays.
+ */
+class SearchWorkspace {
+    static final int MAX_RETAINED_CELLS = Integer.getInteger("maze.search.maxRetainedCells", 1 << 20);
+    private static final ThreadLocal<SearchWorkspace> workspaces = ThreadLocal.withInitial(SearchWorkspace::new);
+    private long[] visited = new long[0];
+    private byte[] directions = new byte[0];
+    private int[] distances = new int[0];
+    private int[] parents = new int[0];
+    private int[] queue = new int[0];
+    private long[] goalVisited = new long[0];
+    private int[] goalQueue = new int[0];
+    private long[] heap = new long[0];
+    private final int[][] levels = {new int[0], new int[0]};
+
+    /**
+     * Returns a workspace for a search.
+     *
+     * @param cells Number of cells the search covers
+     * @return The workspace of the current thread, or a new one if the search is over {@link #MAX_RETAINED_CELLS}
+     */
+    static SearchWorkspace get(int cells) {
+        return cells <= MAX_RETAINED_CELLS ? workspaces.get() : new SearchWorkspace();
+    }
+
+    /**
+     * Returns a cleared bitset with room for the given number of cells.
+     *
+     * @param cells Number of cells
+     * @return The bitset, all bits 0
+     */
+    long[] visited(int cells) {
+        int words = (cells + 63) >>> 6;
+        if (visited.length < words)
+            visited = new long[words];
+        else
+            Arrays.fill(visited, 0, words, 0L);
+        return visited;
+    }
+
+    /**
+     * Returns a second cleared bitset, for the cells reached from the goal by bidirectional searches.
+     *
+     * @param cells Number of cells
+     * @return The bitset, all bits 0
+     */
+    long[] goalVisited(int cells) {
+        int words = (cells + 63) >>> 6;
+        if (goalVisited.length < words)
+            goalVisited = new long[words];
+        else
+            Arrays.fill(goalVisited, 0, words, 0L);
+        return goalVisited;
+    }
+
+    /**
+     * Returns an array with one direction per cell.
+     *
+     * @param cells Number of cells
+     * @return The array, with stale contents
+     */
+    byte[] directions(int cells) {
+        if (directions.length < cells)
+            directions = new byte[cells];
+        return directions;
+    }
+
+    /**
+     * Returns an array with one distance per cell.
+     *
+     * @param cells Number of cells
+     * @return The array, with stale contents
+     */
+    int[] distances(int cells) {
+        if (distances.length < cells)
+            distances = new int[cells];
+        return distances;
+    }
+
+    /**
+     * Returns an array with one parent cell per cell.
+     *
+     * @param cells Number of cells
+     * @return The array, with stale contents
+     */
+    int[] parents(int cells) {
+        if (parents.length < cells)
+            parents = new int[cells];
+        return parents;
+    }
+
+    /**
+     * Returns a queue array of at least the given capacity, a power of two.
+     *
+     * @param capacity Minimum capacity
+     * @return The array, with stale contents
+     */
+    int[] queue(int capacity) {
+        if (queue.length < capacity)
+            queue = new int[Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1];
+        return queue;
+    }
+
+    /**
+     * Replaces a full ring-buffer queue with one twice as big. The queued cells keep their order
+     * and start at index 0 of the new array.
+     *
+     * @param head Index of the first queued cell in the full queue
+     * @return The new array
+     */
+    int[] growQueue(int head) {
+        queue = grow(queue, head);
+        return queue;
+    }
+
+    /**
+     * Returns a second queue array of at least the given capacity, a power of two,
+     * for the cells reached from the goal by bidirectional searches.
+     *
+     * @param capacity Minimum capacity
+     * @return The array, with stale contents
+     */
+    int[] goalQueue(int capacity) {
+        if (goalQueue.length < capacity)
+            goalQueue = new int[Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1];
+        return goalQueue;
+    }
+
+    /**
+     * Replaces the full goal queue with one twice as big, as {@link #growQueue} does.
+     *
+     * @param head Index of the first queued cell in the full queue
+     * @return The new array
+     */
+    int[] growGoalQueue(int head) {
+        goalQueue = grow(goalQueue, head);
+        return goalQueue;
+    }
+
+    /**
+     * Copies a full ring buffer into one twice as big, unwrapped to start at index 0.
+     *
+     * @param ring The full ring buffer
+     * @param head Index of its first element
+     * @return The new array
+     */
+    private static int[] grow(int[] ring, int head) {
+        int[] grown = new int[ring.length * 2];
+        System.arraycopy(ring, head, grown, 0, ring.length - head);
+        System.arraycopy(ring, 0, grown, ring.length - head, head);
+        return grown;
+    }
+
+    /**
+     * Returns one of two arrays for the frontier levels of a level-synchronous search,
+     * which alternate between being read and being filled.
+     *
+     * @param which    0 or 1
+     * @param capacity Minimum capacity
+     * @return The array, with stale contents; contents are lost if it has to grow
+     */
+    int[] level(int which, int capacity) {
+        if (levels[which].length < capacity)
+            levels[which] = new int[Math.max(capacity, levels[which].length + (levels[which].length >>> 1))];
+        return levels[which];
+    }
+
+    /**
+     * Returns a heap array of at least the given capacity.
+     *
+     * @param capacity Minimum capacity
+     * @return The array, with stale contents
+     */
+    long[] heap(int capacity) {
+        if (heap.length < capacity)
+            heap = new long[Math.max(capacity, 16)];
+        return heap;
+    }
+
+    /**
+     * Replaces the heap array with a bigger one, keeping its contents.
+     *
+     * @return The new array
+     */
+    long[] growHeap() {
+        heap = Arrays.copyOf(heap, heap.length * 2);
+        return heap;
+    }
+}
@@ -0,0 +1,63 @@
+package IO;
+
+import algorithms.mazeGenerators.EllerMazeGenerator;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MazeRowWriterTest {
+    private static final int[] WIDTHS = {1, 2, 7, 8, 9, 63, 64, 65, 127, 130, 200};
+
+    @Test
+    void writesGeneratedMazesAsMazeEncoderDoes() throws IOException {
+        for (int cols : WIDTHS) {
+            for (int rows : new int[]{1, 3, 20}) {
+                EllerMazeGenerator generator = new EllerMazeGenerator(rows * 1000L + cols);
+                ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+                generator.generate(rows, cols, new MazeRowWriter(streamed));
+                ByteArrayOutputStream whole = new ByteArrayOutputStream();
+                MazeEncoder.writeBitMaze(generator.generateBitMaze(rows, cols), whole);
+                assertArrayEquals(whole.toByteArray(), streamed.toByteArray(), rows + "x" + cols);
+                assertArrayEquals(MazeEncoder.toBytes(generator.generate(rows, cols)), streamed.toByteArray(), rows + "x" + cols);
+            }
+        }
+    }
+
+    @Test
+    void writesRandomRowsAsMazeEncoderDoes() throws IOException {
+        SplittableRandom random = new SplittableRandom(19);
+        for (int cols : WIDTHS) {
+            int rows = 1 + random.nextInt(9);
+            int[][] cells = new int[rows][cols];
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            MazeRowWriter writer = new MazeRowWriter(streamed);
+            Position start = new Position(0, 0);
+            Position goal = new Position(rows - 1, cols - 1);
+            writer.start(rows, cols, start, goal);
+            for (int[] row : cells) {
+                long[] walls = new long[(cols + 63) >>> 6];
+                for (int col = 0; col < cols; col++) {
+                    row[col] = random.nextInt(2);
+                    walls[col >>> 6] |= (long) row[col] << col;
+                }
+                writer.row(walls);
+            }
+            assertArrayEquals(MazeEncoder.toBytes(new Maze(cells, start, goal)), streamed.toByteArray(), rows + "x" + cols);
+            assertEquals(MazeEncoder.encodedSize(rows, cols), streamed.size());
+        }
+    }
+
+    @Test
+    void rejectsMoreRowsThanAnnounced() throws IOException {
+        MazeRowWriter writer = new MazeRowWriter(new ByteArrayOutputStream());
+        writer.start(1, 5, new Position(0, 0), new Position(0, 4));
+        writer.row(new long[1]);
+        assertThrows(IOException.class, () -> writer.row(new long[1]));
+    }
+}
@@ -0,0 +1,177 @@
+package IO;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+import algorithms.search.AState;
+import algorithms.search.CompactSolution;
+import algorithms.search.MazeState;
+import algorithms.search.Solution;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCodecTest {
+
+    /**
+     * Walks direction codes from a start cell.
+     *
+     * @param startRow   Row of the first cell
+     * @param startCol   Column of the first cell
+     * @param directions Direction codes
+     * @return The cells as {row, col} pairs, start included
+     */
+    private static List<int[]> walk(int startRow, int startCol, byte[] directions) {
+        List<int[]> cells = new ArrayList<>();
+        int row = startRow;
+        int col = startCol;
+        cells.add(new int[]{row, col});
+        for (byte direction : directions) {
+            switch (direction) {
+                case SolutionCodec.UP -> row--;
+                case SolutionCodec.DOWN -> row++;
+                case SolutionCodec.LEFT -> col--;
+                default -> col++;
+            }
+            cells.add(new int[]{row, col});
+        }
+        return cells;
+    }
+
+    /**
+     * Decodes an encoded solution into its cells.
+     *
+     * @param encoded The encoded solution
+     * @return The cells as {row, col} pairs
+     */
+    private static List<int[]> decode(byte[] encoded) {
+        List<int[]> cells = new ArrayList<>();
+        new CompactSolution(encoded).forEachCell((row, col) -> cells.add(new int[]{row, col}));
+        return cells;
+    }
+
+    /**
+     * Asserts that two lists of cells are equal.
+     *
+     * @param expected Expected cells
+     * @param actual   Actual cells
+     */
+    private static void assertCells(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals(expected.get(i), actual.get(i), "cell " + i);
+    }
+
+    @Test
+    void roundTripsRandomPaths() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 200; trial++) {
+            byte[] directions = new byte[random.nextInt(300)];
+            for (int i = 0; i < directions.length; i++)
+                directions[i] = (byte) random.nextInt(4);
+            int startRow = random.nextInt(1000);
+            int startCol = random.nextInt(1000);
+            byte[] encoded = SolutionCodec.encode(startRow, startCol, directions, false);
+            assertEquals(0, encoded[0] & SolutionCodec.RUN_LENGTH, "random turns are packed, not run-length encoded");
+            assertEquals(SolutionCodec.HEADER_SIZE + (directions.length + 3) / 4, encoded.length);
+            assertCells(walk(startRow, startCol, directions), decode(encoded));
+            assertEquals(directions.length + 1, new CompactSolution(encoded).getLength());
+        }
+    }
+
+    @Test
+    void roundTripsLongRunsWithRunLengthEncoding() {
+        byte[] directions = new byte[1000];
+        int[] runs = {1, 63, 64, 65, 130, 200, 7, 470};
+        int i = 0;
+        for (int run = 0; run < runs.length; run++) {
+            Arrays.fill(directions, i, i + runs[run], (byte) (run % 2 == 0 ? SolutionCodec.RIGHT : SolutionCodec.DOWN));
+            i += runs[run];
+        }
+        byte[] encoded = SolutionCodec.encode(2, 3, directions, false);
+        assertEquals(SolutionCodec.RUN_LENGTH, encoded[0] & SolutionCodec.RUN_LENGTH);
+        assertTrue(encoded.length < SolutionCodec.HEADER_SIZE + directions.length / 4);
+        assertCells(walk(2, 3, directions), decode(encoded));
+        assertEquals(directions.length + 1, new CompactSolution(encoded).getLength());
+    }
+
+    @Test
+    void distinguishesEmptySolutionFromSingleCell() {
+        CompactSolution empty = new CompactSolution(SolutionCodec.encode(0, 0, new byte[0], true));
+        assertEquals(0, empty.getLength());
+        assertTrue(empty.getSolutionPath().isEmpty());
+
+        CompactSolution single = new CompactSolution(SolutionCodec.encode(4, 5, new byte[0], false));
+        assertEquals(1, single.getLength());
+        assertCells(List.of(new int[]{4, 5}), decode(single.getEncoded()));
+    }
+
+    @Test
+    void encodesSolutionStatesWithDiagonalStepsThroughOpenCorner() {
+        int[][] cells = {
+                {0, 1, 1},
+                {0, 0, 1},
+                {1, 0, 0}};
+        Maze maze = new Maze(cells, new Position(0, 0), new Position(2, 2));
+        ArrayList<AState> path = new ArrayList<>();
+        path.add(new MazeState(new Position(0, 0)));
+        path.add(new MazeState(new Position(1, 1))); // diagonal: (0, 1) is a wall, (1, 0) is open
+        path.add(new MazeState(new Position(2, 2))); // diagonal: (1, 2) is a wall, (2, 1) is open
+        byte[] encoded = SolutionCodec.encode(new Solution(path), maze);
+        assertCells(List.of(new int[]{0, 0}, new int[]{1, 0}, new int[]{1, 1}, new int[]{2, 1}, new int[]{2, 2}), decode(encoded));
+
+        ArrayList<AState> states = new CompactSolution(encoded).getSolutionPath();
+        assertEquals(5, states.size());
+        assertEquals(2, states.get(4).getRow());
+        assertEquals(2, states.get(4).getCol());
+        for (AState state : states)
+            assertEquals(0, cells[state.getRow()][state.getCol()], "decoded path crosses a wall at " + state);
+    }
+
+    @Test
+    void rejectsNonAdjacentCells() {
+        Maze maze = new Maze(new int[3][3], new Position(0, 0), new Position(2, 2));
+        ArrayList<AState> path = new ArrayList<>();
+        path.add(new MazeState(new Position(0, 0)));
+        path.add(new MazeState(new Position(0, 2)));
+        assertThrows(IllegalArgumentException.class, () -> SolutionCodec.encode(new Solution(path), maze));
+    }
+
+    @Test
+    void rejectsTruncatedEncoding() {
+        byte[] encoded = SolutionCodec.encode(0, 0, new byte[]{0, 1, 2, 3, 0, 1, 2, 3, 0}, false);
+        assertThrows(IllegalArgumentException.class, () -> new CompactSolution(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> new CompactSolution(Arrays.copyOf(encoded, SolutionCodec.HEADER_SIZE - 1)));
+    }
+
+    @Test
+    void rejectsRunsThatDoNotMatchTheSteps() {
+        byte[] directions = new byte[200];
+        Arrays.fill(directions, (byte) SolutionCodec.RIGHT);
+        byte[] encoded = SolutionCodec.encode(0, 0, directions, false);
+        assertEquals(SolutionCodec.RUN_LENGTH, encoded[0] & SolutionCodec.RUN_LENGTH);
+        assertThrows(IllegalArgumentException.class, () -> new CompactSolution(Arrays.copyOf(encoded, encoded.length - 1)));
+        byte[] tooFewSteps = encoded.clone();
+        ByteBuffer.wrap(tooFewSteps).putInt(9, directions.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> new CompactSolution(tooFewSteps));
+        byte[] tooManySteps = encoded.clone();
+        ByteBuffer.wrap(tooManySteps).putInt(9, directions.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> new CompactSolution(tooManySteps));
+    }
+
+    @Test
+    void rejectsNegativeStepsOtherThanTheEmptyMarker() {
+        byte[] encoded = SolutionCodec.encode(0, 0, new byte[0], true);
+        assertEquals(0, new CompactSolution(encoded).getLength());
+        for (int steps : new int[]{-2, Integer.MIN_VALUE}) {
+            byte[] negative = encoded.clone();
+            ByteBuffer.wrap(negative).putInt(9, steps);
+            assertThrows(IllegalArgumentException.class, () -> new CompactSolution(negative));
+        }
+    }
+}
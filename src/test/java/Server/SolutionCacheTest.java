@@ -0,0 +1,96 @@
+package Server;
+
+import IO.MazeEncoder;
+import IO.MazeProtocol;
+import algorithms.mazeGenerators.EllerMazeGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+    private static final int THREADS = 8;
+    private static final byte[] MAZE = MazeEncoder.toBytes(new EllerMazeGenerator(7).generate(21, 21));
+
+    @Test
+    void sharesOneSolveAmongConcurrentMisses() throws Exception {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(threads.submit(() -> cache.getOrSolve(MAZE, () -> {
+                    solves.incrementAndGet();
+                    release.await();
+                    return new byte[]{1, 2, 3};
+                })));
+            }
+            Thread.sleep(200); // let every thread miss while the first solve is blocked
+            release.countDown();
+            for (Future<byte[]> result : results)
+                assertArrayEquals(new byte[]{1, 2, 3}, result.get(10, TimeUnit.SECONDS));
+            assertEquals(1, solves.get());
+            assertEquals(1, cache.size());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void retriesWhenTheSharedSolveFails() throws Exception {
+        SolutionCache cache = new SolutionCache(1 << 20);
+        AtomicInteger solves = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(threads.submit(() -> cache.getOrSolve(MAZE, () -> {
+                    release.await();
+                    if (solves.getAndIncrement() == 0)
+                        throw new IOException("cancelled");
+                    return new byte[]{4};
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            int failures = 0;
+            for (Future<byte[]> result : results) {
+                try {
+                    assertArrayEquals(new byte[]{4}, result.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertEquals("cancelled", e.getCause().getMessage());
+                    failures++;
+                }
+            }
+            assertEquals(1, failures);
+            assertEquals(2, solves.get());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void keysRequestsWithoutAlgorithmByTheConfiguredOne() {
+        SolutionCache.Key unnamed = SolutionCache.Key.of(MAZE);
+        assertEquals(SolutionCache.Key.of(MazeProtocol.withAlgorithm(MAZE, AlgorithmRegistry.getConfiguredSolver())), unnamed);
+        String other = AlgorithmRegistry.getConfiguredSolver().equals("AStarSearch") ? "BreadthFirstSearch" : "AStarSearch";
+        assertNotEquals(SolutionCache.Key.of(MazeProtocol.withAlgorithm(MAZE, other)), unnamed);
+
+        byte[] seed = {1, 2, 3};
+        assertEquals(SolutionCache.Key.ofSeed(MAZE, seed, AlgorithmRegistry.getConfiguredSolver()), SolutionCache.Key.ofSeed(MAZE, seed, null));
+        assertNotEquals(SolutionCache.Key.ofSeed(MAZE, seed, other), SolutionCache.Key.ofSeed(MAZE, seed, null));
+    }
+}
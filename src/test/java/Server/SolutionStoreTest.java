@@ -0,0 +1,168 @@
+package Server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionStoreTest {
+    private static final long MAX_BYTES = 1 << 20;
+    private static final Duration MAX_AGE = Duration.ofDays(1);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Builds a distinct key for a number.
+     *
+     * @param n The number
+     * @return The key of a fake encoded maze holding the number
+     */
+    private static SolutionCache.Key key(int n) {
+        return SolutionCache.Key.of(ByteBuffer.allocate(28).putInt(10).putInt(10).putInt(0).putInt(0).putInt(9).putInt(9).putInt(n).array());
+    }
+
+    /**
+     * Builds a value whose bytes depend on a number.
+     *
+     * @param n      The number
+     * @param length Length of the value
+     * @return The value
+     */
+    private static byte[] value(int n, int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++)
+            value[i] = (byte) (n * 31 + i);
+        return value;
+    }
+
+    @Test
+    void keepsSolutionsAcrossCleanReopen() throws IOException {
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            for (int n = 0; n < 100; n++)
+                store.put(key(n), value(n, 50));
+        }
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            assertEquals(100, store.size());
+            for (int n = 0; n < 100; n++)
+                assertArrayEquals(value(n, 50), store.get(key(n)));
+            assertNull(store.get(key(100)));
+        }
+    }
+
+    @Test
+    void rebuildsIndexAfterUncleanClose() throws IOException {
+        Path crashed = directory.resolve("crashed");
+        try (SolutionStore store = new SolutionStore(directory.resolve("live"), MAX_BYTES, MAX_AGE)) {
+            for (int n = 0; n < 100; n++)
+                store.put(key(n), value(n, 50));
+            store.put(key(7), value(1007, 80)); // replaces the first record of the key
+            // the files as a crash would leave them: written, but the index not marked clean
+            Files.createDirectories(crashed);
+            for (String name : new String[]{"solutions.dat", "solutions.idx"})
+                Files.copy(directory.resolve("live").resolve(name), crashed.resolve(name));
+        }
+        try (SolutionStore store = new SolutionStore(crashed, MAX_BYTES, MAX_AGE)) {
+            assertEquals(100, store.size());
+            assertArrayEquals(value(1007, 80), store.get(key(7)));
+            for (int n = 0; n < 100; n++) {
+                if (n != 7)
+                    assertArrayEquals(value(n, 50), store.get(key(n)));
+            }
+        }
+    }
+
+    @Test
+    void cutsTruncatedRecord() throws IOException {
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            for (int n = 0; n < 3; n++)
+                store.put(key(n), value(n, 100));
+        }
+        Path data = directory.resolve("solutions.dat");
+        long size = Files.size(data);
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 10); // a torn append of the last record
+        }
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            assertEquals(2, store.size());
+            assertArrayEquals(value(0, 100), store.get(key(0)));
+            assertArrayEquals(value(1, 100), store.get(key(1)));
+            assertNull(store.get(key(2)));
+            assertEquals(store.getDataBytes(), Files.size(data));
+            store.put(key(2), value(2, 100)); // appends after the cut
+        }
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            assertEquals(3, store.size());
+            assertArrayEquals(value(2, 100), store.get(key(2)));
+        }
+    }
+
+    @Test
+    void dropsCorruptRecordAndAllAfterIt() throws IOException {
+        long secondRecord;
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            store.put(key(0), value(0, 100));
+            secondRecord = store.getDataBytes();
+            store.put(key(1), value(1, 100));
+            store.put(key(2), value(2, 100));
+        }
+        Path data = directory.resolve("solutions.dat");
+        try (FileChannel channel = FileChannel.open(data, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55}), secondRecord + 80); // inside the second record's value
+        }
+        Files.delete(directory.resolve("solutions.idx")); // force a scan of the data file
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            assertEquals(1, store.size());
+            assertArrayEquals(value(0, 100), store.get(key(0)));
+            assertNull(store.get(key(2)));
+            assertEquals(secondRecord, store.getDataBytes());
+        }
+    }
+
+    @Test
+    void compactsLeastRecentlyUsedAway() throws IOException {
+        int valueLength = 1000;
+        long budget = 20L * (valueLength + 100);
+        try (SolutionStore store = new SolutionStore(directory, budget, MAX_AGE)) {
+            for (int n = 0; n < 10; n++)
+                store.put(key(n), value(n, valueLength));
+            for (int n = 0; n < 10; n++)
+                store.put(key(n), value(n + 100, valueLength)); // leaves the first records dead
+            assertTrue(store.getLiveBytes() < store.getDataBytes());
+            for (int n = 10; n < 30; n++) {
+                assertNotNull(store.get(key(0))); // keeps key 0 the most recently used
+                store.put(key(n), value(n, valueLength));
+                assertTrue(store.getDataBytes() <= budget);
+            }
+            assertArrayEquals(value(100, valueLength), store.get(key(0)));
+            assertNull(store.get(key(1)));
+            assertArrayEquals(value(29, valueLength), store.get(key(29)));
+            assertEquals(store.getLiveBytes(), store.getDataBytes() - 8);
+        }
+        assertFalse(Files.exists(directory.resolve("solutions.dat.compact")));
+        try (SolutionStore store = new SolutionStore(directory, budget, MAX_AGE)) {
+            assertArrayEquals(value(100, valueLength), store.get(key(0)));
+            assertArrayEquals(value(29, valueLength), store.get(key(29)));
+        }
+    }
+
+    @Test
+    void refusesDirectoryInUse() throws IOException {
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            store.put(key(0), value(0, 10));
+            assertThrows(IOException.class, () -> new SolutionStore(directory, MAX_BYTES, MAX_AGE));
+            assertArrayEquals(value(0, 10), store.get(key(0)));
+        }
+        try (SolutionStore store = new SolutionStore(directory, MAX_BYTES, MAX_AGE)) {
+            assertEquals(1, store.size());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package algorithms.search;
+
+import IO.SolutionCodec;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceFieldTest {
+
+    @Test
+    void matchesReferenceDistancesFromEveryCell() {
+        for (Maze maze : GridMazes.mazes()) {
+            DistanceField field = DistanceField.of(MazeGrid.of(maze));
+            Position goal = maze.getGoalPosition();
+            int[][] distances = GridMazes.distancesFrom(maze, goal);
+            for (int row = 0; row < distances.length; row++) {
+                for (int col = 0; col < distances[0].length; col++) {
+                    assertEquals(distances[row][col], field.getDistance(row, col), "distance from (" + row + "," + col + ")");
+                    assertEquals(distances[row][col] >= 0, field.canReachGoal(row, col));
+                    if (distances[row][col] > 0) {
+                        int step = field.getNextStep(row, col);
+                        int nextRow = row + (step == SolutionCodec.UP ? -1 : step == SolutionCodec.DOWN ? 1 : 0);
+                        int nextCol = col + (step == SolutionCodec.LEFT ? -1 : step == SolutionCodec.RIGHT ? 1 : 0);
+                        assertEquals(distances[row][col] - 1, distances[nextRow][nextCol], "next step from (" + row + "," + col + ")");
+                    } else {
+                        assertEquals(-1, field.getNextStep(row, col));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void walksShortestPathsToTheGoal() {
+        for (Maze maze : GridMazes.mazes()) {
+            DistanceField field = DistanceField.of(MazeGrid.of(maze));
+            Position start = maze.getStartPosition();
+            GridMazes.assertShortestPath(maze, start, maze.getGoalPosition(), field.solutionFrom(start.getRowIndex(), start.getColumnIndex()));
+        }
+    }
+
+    @Test
+    void answersNothingOutsideTheMaze() {
+        Maze maze = GridMazes.randomMaze(1, 10, 10, 0.2);
+        DistanceField field = DistanceField.of(MazeGrid.of(maze));
+        assertEquals(-1, field.getDistance(-1, 0));
+        assertEquals(-1, field.getNextStep(0, 10));
+        assertFalse(field.canReachGoal(10, 0));
+        assertEquals(0, field.solutionFrom(0, -1).getLength());
+    }
+}
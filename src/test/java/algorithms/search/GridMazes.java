@@ -0,0 +1,139 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.EllerMazeGenerator;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mazes for the solver tests, and a plain 4-connected breadth-first search the solvers are checked against.
+ */
+final class GridMazes {
+
+    private GridMazes() {
+    }
+
+    /**
+     * Returns mazes of many shapes: perfect mazes, grids with loops, open grids, mazes whose goal cannot be
+     * reached, and single cells.
+     *
+     * @return The mazes
+     */
+    static List<Maze> mazes() {
+        List<Maze> mazes = new ArrayList<>();
+        int[][] perfectSizes = {{2, 2}, {1, 40}, {40, 1}, {31, 47}, {100, 100}, {3, 200}, {129, 65}};
+        for (int i = 0; i < perfectSizes.length; i++)
+            mazes.add(new EllerMazeGenerator(i).generate(perfectSizes[i][0], perfectSizes[i][1]));
+        int[][] loopySizes = {{20, 20}, {37, 53}, {64, 64}, {100, 3}, {150, 150}};
+        for (int i = 0; i < loopySizes.length; i++) {
+            mazes.add(randomMaze(i, loopySizes[i][0], loopySizes[i][1], 0.3));
+            mazes.add(randomMaze(100 + i, loopySizes[i][0], loopySizes[i][1], 0.45)); // often unreachable
+        }
+        mazes.add(randomMaze(7, 40, 60, 0));
+        mazes.add(new Maze(new int[][]{{0}}, new Position(0, 0), new Position(0, 0)));
+        mazes.add(new Maze(new int[][]{{0, 1, 0}}, new Position(0, 0), new Position(0, 2)));
+        return mazes;
+    }
+
+    /**
+     * Builds a maze of randomly placed walls, which has loops and may have no path.
+     *
+     * @param seed      Seed of the walls and the start and goal cells
+     * @param rows      Number of rows
+     * @param cols      Number of columns
+     * @param wallRatio Probability of a cell being a wall
+     * @return The maze, with open start and goal cells
+     */
+    static Maze randomMaze(long seed, int rows, int cols, double wallRatio) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] cells = new int[rows][cols];
+        for (int[] row : cells) {
+            for (int col = 0; col < cols; col++)
+                row[col] = random.nextDouble() < wallRatio ? 1 : 0;
+        }
+        Position start = new Position(random.nextInt(rows), random.nextInt(cols));
+        Position goal = new Position(random.nextInt(rows), random.nextInt(cols));
+        cells[start.getRowIndex()][start.getColumnIndex()] = 0;
+        cells[goal.getRowIndex()][goal.getColumnIndex()] = 0;
+        return new Maze(cells, start, goal);
+    }
+
+    /**
+     * Finds the number of steps from a cell to every cell, moving up, down, left and right only.
+     *
+     * @param maze The maze
+     * @param from The cell to measure from
+     * @return The distances, -1 for walls and unreachable cells
+     */
+    static int[][] distancesFrom(Maze maze, Position from) {
+        int[][] cells = maze.getMazeArray();
+        int[][] distances = new int[cells.length][cells[0].length];
+        for (int[] row : distances)
+            Arrays.fill(row, -1);
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        distances[from.getRowIndex()][from.getColumnIndex()] = 0;
+        queue.add(new int[]{from.getRowIndex(), from.getColumnIndex()});
+        int[][] steps = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            for (int[] step : steps) {
+                int row = cell[0] + step[0];
+                int col = cell[1] + step[1];
+                if (row >= 0 && row < cells.length && col >= 0 && col < cells[0].length && cells[row][col] == 0 && distances[row][col] < 0) {
+                    distances[row][col] = distances[cell[0]][cell[1]] + 1;
+                    queue.add(new int[]{row, col});
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Asserts that a solution is a shortest 4-connected path between two cells, or empty if there is none.
+     *
+     * @param maze     The maze
+     * @param from     The first cell
+     * @param to       The last cell
+     * @param solution The solution found
+     */
+    static void assertShortestPath(Maze maze, Position from, Position to, Solution solution) {
+        int expected = distancesFrom(maze, from)[to.getRowIndex()][to.getColumnIndex()];
+        ArrayList<AState> path = solution.getSolutionPath();
+        String name = maze.getMazeArray().length + "x" + maze.getMazeArray()[0].length + " maze from " + from + " to " + to;
+        if (expected < 0) {
+            assertTrue(path.isEmpty(), "path found in " + name + " that has none");
+            return;
+        }
+        assertEquals(expected + 1, path.size(), "path length in " + name);
+        assertCell(from, path.get(0));
+        assertCell(to, path.get(path.size() - 1));
+        int[][] cells = maze.getMazeArray();
+        for (int i = 0; i < path.size(); i++) {
+            AState state = path.get(i);
+            assertEquals(0, cells[state.getRow()][state.getCol()], "path crosses a wall at " + state + " in " + name);
+            if (i > 0) {
+                AState previous = path.get(i - 1);
+                assertEquals(1, Math.abs(state.getRow() - previous.getRow()) + Math.abs(state.getCol() - previous.getCol()),
+                        "cells " + previous + " and " + state + " are not adjacent in " + name);
+            }
+        }
+    }
+
+    /**
+     * Asserts that a state is at a position.
+     *
+     * @param expected The position
+     * @param actual   The state
+     */
+    private static void assertCell(Position expected, AState actual) {
+        assertEquals(expected.getRowIndex(), actual.getRow());
+        assertEquals(expected.getColumnIndex(), actual.getCol());
+    }
+}
@@ -0,0 +1,74 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JunctionGraphTest {
+
+    /**
+     * Lists the open cells of a maze.
+     *
+     * @param maze The maze
+     * @return The positions of all path cells
+     */
+    private static List<Position> openCells(Maze maze) {
+        int[][] cells = maze.getMazeArray();
+        List<Position> open = new ArrayList<>();
+        for (int row = 0; row < cells.length; row++) {
+            for (int col = 0; col < cells[0].length; col++) {
+                if (cells[row][col] == 0)
+                    open.add(new Position(row, col));
+            }
+        }
+        return open;
+    }
+
+    @Test
+    void findsShortestPathsBetweenAnyCells() {
+        SplittableRandom random = new SplittableRandom(14);
+        for (Maze maze : GridMazes.mazes()) {
+            JunctionGraph graph = JunctionGraph.of(MazeGrid.of(maze));
+            GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), graph.solve(maze.getStartPosition(), maze.getGoalPosition()));
+            List<Position> open = openCells(maze);
+            for (int query = 0; query < 50; query++) {
+                Position from = open.get(random.nextInt(open.size()));
+                Position to = query % 10 == 0 ? from : open.get(random.nextInt(open.size()));
+                GridMazes.assertShortestPath(maze, from, to, graph.solve(from, to));
+            }
+        }
+    }
+
+    @Test
+    void answersQueriesFromSeveralThreads() {
+        Maze maze = GridMazes.randomMaze(3, 150, 150, 0.3);
+        JunctionGraph graph = JunctionGraph.of(MazeGrid.of(maze));
+        List<Position> open = openCells(maze);
+        IntStream.range(0, 400).parallel().forEach(query -> {
+            SplittableRandom random = new SplittableRandom(query);
+            Position from = open.get(random.nextInt(open.size()));
+            Position to = open.get(random.nextInt(open.size()));
+            GridMazes.assertShortestPath(maze, from, to, graph.solve(from, to));
+        });
+    }
+
+    @Test
+    void findsNoPathFromWallOrOutsideTheMaze() {
+        int[][] cells = {
+                {0, 0, 0},
+                {1, 1, 0},
+                {0, 0, 0}};
+        Maze maze = new Maze(cells, new Position(0, 0), new Position(2, 0));
+        JunctionGraph graph = JunctionGraph.of(MazeGrid.of(maze));
+        GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), graph.solve(maze.getStartPosition(), maze.getGoalPosition()));
+        assertTrue(graph.solve(new Position(1, 0), new Position(2, 0)).getSolutionPath().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> graph.solve(new Position(3, 0), new Position(2, 0)));
+    }
+}
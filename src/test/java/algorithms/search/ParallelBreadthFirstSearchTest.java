@@ -0,0 +1,23 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.Maze;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+class ParallelBreadthFirstSearchTest {
+
+    @Test
+    void findsShortestPathsThroughLevelsSplitAcrossThePool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(pool);
+            // frontiers of these grids grow past PARALLEL_LEVEL cells
+            int size = 2 * ParallelBreadthFirstSearch.PARALLEL_LEVEL;
+            for (Maze maze : new Maze[]{GridMazes.randomMaze(1, size, size, 0), GridMazes.randomMaze(2, size, size, 0.2)})
+                GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), search.solve(MazeGrid.of(maze)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
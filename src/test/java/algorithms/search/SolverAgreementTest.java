@@ -0,0 +1,45 @@
+package algorithms.search;
+
+import algorithms.mazeGenerators.Maze;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+/**
+ * Checks every grid solver against the plain breadth-first search of {@link GridMazes}.
+ */
+class SolverAgreementTest {
+
+    /**
+     * Returns the solvers under test.
+     *
+     * @return One instance of each grid solver, named by its class
+     */
+    static Stream<Named<AGridSearch>> solvers() {
+        return Stream.<AGridSearch>of(new PrimitiveBreadthFirstSearch(), new AStarSearch(), new BidirectionalBreadthFirstSearch(),
+                        new ParallelBreadthFirstSearch(), new JumpPointSearch())
+                .map(search -> Named.of(search.getClass().getSimpleName(), search));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("solvers")
+    void findsShortestPaths(AGridSearch search) {
+        for (Maze maze : GridMazes.mazes()) {
+            GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), search.solve(MazeGrid.of(maze)));
+            GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), search.solve(new SearchableMaze(maze)));
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("solvers")
+    void findsShortestPathsInMazesOverTheRetainedWorkspace(AGridSearch search) {
+        int size = (int) Math.sqrt(SearchWorkspace.MAX_RETAINED_CELLS) + 10;
+        Maze large = GridMazes.randomMaze(9, size, size, 0.3);
+        GridMazes.assertShortestPath(large, large.getStartPosition(), large.getGoalPosition(), search.solve(MazeGrid.of(large)));
+        // the thread's own workspace still serves the small mazes that follow
+        for (Maze maze : GridMazes.mazes())
+            GridMazes.assertShortestPath(maze, maze.getStartPosition(), maze.getGoalPosition(), search.solve(MazeGrid.of(maze)));
+    }
+}